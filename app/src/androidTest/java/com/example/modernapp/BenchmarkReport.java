@@ -0,0 +1,73 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Writes instrumented benchmark results as JSON next to the app's own metrics report.
+ * To fetch them after a run:
+ * adb shell run-as com.example.modernapp cat files/benchmarks/[name].json
+ */
+final class BenchmarkReport {
+    private static final String TAG = "BenchmarkReport";
+    private static final String REPORT_DIR = "benchmarks";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private BenchmarkReport() {
+    }
+
+    /**
+     * Writes the results of one benchmark
+     *
+     * @param name    the benchmark name, used as the file name
+     * @param results the results
+     */
+    static void write(String name, JSONObject results) throws JSONException, IOException {
+        JSONObject json = new JSONObject();
+        json.put("benchmark", name);
+        json.put("sdk", Build.VERSION.SDK_INT);
+        json.put("device", Build.MODEL);
+        json.put("results", results);
+        String report = json.toString(2);
+        Log.i(TAG, report);
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File dir = new File(context.getFilesDir(), REPORT_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create " + dir);
+        }
+        try (FileOutputStream out = new FileOutputStream(new File(dir, name + ".json"))) {
+            out.write(report.getBytes(UTF_8));
+        }
+    }
+
+    /**
+     * Gets a percentile of some values
+     *
+     * @param values  the values
+     * @param count   number of values to use from the start of the array
+     * @param percent the percentile, from 0 to 100
+     * @return the smallest value at or above that share of values
+     */
+    static long percentile(long[] values, int count, double percent) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(count * percent / 100);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
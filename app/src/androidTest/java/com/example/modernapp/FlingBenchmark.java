@@ -0,0 +1,157 @@
+package com.example.modernapp;
+
+import android.app.Instrumentation;
+import android.view.Choreographer;
+import android.view.Display;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Frame times while flinging a long item list on a device.
+ * Each fling is recorded from its start until the list comes to rest; a frame
+ * taking more than one and a half refresh intervals counts as janky. The list is
+ * flung with and without the row text cache, to show what prefetching text saves.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FlingBenchmark {
+    private static final int ITEMS = 2000;
+    private static final int FLINGS = 6;
+    private static final int VELOCITY = 8000;
+    private static final int MAX_FRAMES = 10_000;
+
+    @Test
+    public void flingItemList() throws Exception {
+        BenchmarkReport.write("fling", fling(activity -> new ItemAdapter(activity, items())).toJson());
+    }
+
+    @Test
+    public void flingItemListWithoutTextCache() throws Exception {
+        // Caches and prefetches nothing, so every row's text is laid out as it is bound
+        BenchmarkReport.write("flingWithoutTextCache",
+                fling(activity -> new ItemAdapter(activity, items(), new RowTextCache(0, 0))).toJson());
+    }
+
+    /**
+     * Creates items with distinct titles, as loaded from the database
+     */
+    static ItemStore items() {
+        ItemStore store = new ItemStore(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            store.add(i + 1, android.R.drawable.ic_menu_info_details, "Item " + i,
+                    "Description of item " + i + ", long enough to wrap onto a second line of the row");
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * Creates the adapter of the list being flung
+     */
+    interface AdapterFactory {
+        RecyclerView.Adapter<?> create(MainActivity activity);
+    }
+
+    /**
+     * Shows a list on the main screen and flings it down and back up
+     *
+     * @param factory creates the list's adapter
+     * @return the frames recorded during the flings
+     */
+    static FrameRecorder fling(AdapterFactory factory) throws InterruptedException {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        AtomicReference<RecyclerView> list = new AtomicReference<>();
+        FrameRecorder recorder = new FrameRecorder();
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(activity -> {
+                RecyclerView recyclerView = new RecyclerView(activity);
+                ListViewPool.attach(recyclerView);
+                recyclerView.setAdapter(factory.create(activity));
+                activity.setContentView(recyclerView);
+                list.set(recyclerView);
+            });
+            instrumentation.waitForIdleSync();
+
+            for (int i = 0; i < FLINGS; i++) {
+                int velocity = i % 2 == 0 ? VELOCITY : -VELOCITY;
+                instrumentation.runOnMainSync(() -> {
+                    recorder.start(list.get().getDisplay());
+                    list.get().fling(0, velocity);
+                });
+                waitForScrollToStop(instrumentation, list.get());
+                instrumentation.runOnMainSync(recorder::stop);
+            }
+        }
+        return recorder;
+    }
+
+    private static void waitForScrollToStop(Instrumentation instrumentation, RecyclerView list)
+            throws InterruptedException {
+        boolean[] idle = new boolean[1];
+        do {
+            Thread.sleep(50);
+            instrumentation.runOnMainSync(() -> idle[0] = list.getScrollState() == RecyclerView.SCROLL_STATE_IDLE);
+        } while (!idle[0]);
+    }
+
+    /**
+     * Records the interval between consecutive frames while started
+     */
+    static final class FrameRecorder implements Choreographer.FrameCallback {
+        private final long[] frameNanos = new long[MAX_FRAMES];
+        private int frames;
+        private int jankyFrames;
+        private long frameBudgetNanos;
+        private long lastFrameNanos;
+        private boolean running;
+
+        void start(Display display) {
+            float refreshRate = display != null ? display.getRefreshRate() : 60f;
+            frameBudgetNanos = (long) (1_000_000_000L / refreshRate);
+            lastFrameNanos = 0;
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void stop() {
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!running) {
+                return;
+            }
+            if (lastFrameNanos > 0 && frames < MAX_FRAMES) {
+                long duration = frameTimeNanos - lastFrameNanos;
+                frameNanos[frames++] = duration;
+                if (duration > frameBudgetNanos * 3 / 2) {
+                    jankyFrames++;
+                }
+            }
+            lastFrameNanos = frameTimeNanos;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("frames", frames);
+            json.put("jankyFrames", jankyFrames);
+            json.put("jankPercent", frames == 0 ? 0 : 100.0 * jankyFrames / frames);
+            json.put("frameP50Micros", BenchmarkReport.percentile(frameNanos, frames, 50) / 1000);
+            json.put("frameP90Micros", BenchmarkReport.percentile(frameNanos, frames, 90) / 1000);
+            json.put("frameP99Micros", BenchmarkReport.percentile(frameNanos, frames, 99) / 1000);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.modernapp;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Main-thread time spent in onCreate by the screens that show preferences, on a device.
+ *
+ * The preferences are read on a background thread, so onCreate only inflates and binds
+ * once they are ready. The report puts the onCreate times next to the preference load
+ * time, which onCreate used to spend on top of them when it read the preferences itself,
+ * and StrictMode checks that onCreate reads nothing from disk.
+ * Needs Android 10, which added the callbacks around onCreate.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OnCreateBenchmark {
+    private static final String TAG = "OnCreateBenchmark";
+    private static final int LAUNCHES = 10;
+
+    /**
+     * Times each onCreate of one activity class, and collects the disk reads made during it
+     */
+    private static final class OnCreateTimer implements Application.ActivityLifecycleCallbacks {
+        final Class<? extends Activity> activityClass;
+        final long[] nanos = new long[LAUNCHES];
+        final List<Violation> diskReads = Collections.synchronizedList(new ArrayList<>());
+        int count;
+        private long start;
+        private StrictMode.ThreadPolicy previousPolicy;
+
+        OnCreateTimer(Class<? extends Activity> activityClass) {
+            this.activityClass = activityClass;
+        }
+
+        @Override
+        public void onActivityPreCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+            if (activityClass.isInstance(activity)) {
+                previousPolicy = StrictMode.getThreadPolicy();
+                StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                        .detectDiskReads()
+                        .penaltyListener(Runnable::run, diskReads::add)
+                        .build());
+                start = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void onActivityPostCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+            if (activityClass.isInstance(activity)) {
+                nanos[count++] = System.nanoTime() - start;
+                StrictMode.setThreadPolicy(previousPolicy);
+            }
+        }
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+
+    @Test
+    public void settingsActivity() throws Exception {
+        measure(SettingsActivity.class, "settingsOnCreate");
+    }
+
+    @Test
+    public void profileActivity() throws Exception {
+        measure(ProfileActivity.class, "profileOnCreate");
+    }
+
+    private void measure(Class<? extends Activity> activityClass, String name) throws Exception {
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q);
+        Application application = (Application) InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getApplicationContext();
+        OnCreateTimer timer = new OnCreateTimer(activityClass);
+        application.registerActivityLifecycleCallbacks(timer);
+        try {
+            for (int i = 0; i < LAUNCHES; i++) {
+                ActivityScenario.launch(activityClass).close();
+            }
+        } finally {
+            application.unregisterActivityLifecycleCallbacks(timer);
+        }
+
+        long[] micros = new long[timer.count];
+        for (int i = 0; i < micros.length; i++) {
+            micros[i] = TimeUnit.NANOSECONDS.toMicros(timer.nanos[i]);
+        }
+        JSONObject results = new JSONObject();
+        results.put("launches", timer.count);
+        results.put("firstOnCreateMicros", micros.length > 0 ? micros[0] : -1);
+        results.put("onCreateP50Micros", BenchmarkReport.percentile(micros, micros.length, 50));
+        results.put("onCreateMaxMicros", BenchmarkReport.percentile(micros, micros.length, 100));
+        results.put("preferenceLoadMicros",
+                TimeUnit.NANOSECONDS.toMicros(DataManager.getInstance(application).getLoadDurationNanos()));
+        results.put("diskReadsInOnCreate", timer.diskReads.size());
+        BenchmarkReport.write(name, results);
+
+        for (Violation violation : timer.diskReads) {
+            Log.w(TAG, "Disk read in onCreate", violation);
+        }
+        assertTrue("onCreate read from disk " + timer.diskReads.size() + " times, see logcat",
+                timer.diskReads.isEmpty());
+    }
+}
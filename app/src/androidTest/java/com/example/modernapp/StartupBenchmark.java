@@ -0,0 +1,56 @@
+package com.example.modernapp;
+
+import android.app.Instrumentation;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Launch times of the main screen on a device.
+ *
+ * The first launch runs in a fresh process, right after the application was created,
+ * so it pays for the first inflations and for waiting on the preferences; later launches
+ * show the warm path, with rows coming from the shared pool. For a clean first launch,
+ * run this class on its own:
+ * ./gradlew connectedDebugAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.example.modernapp.StartupBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+    private static final int LAUNCHES = 10;
+
+    @Test
+    public void launchMainActivity() throws Exception {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        long[] launchMillis = new long[LAUNCHES];
+        long processToFirstFrameMillis = -1;
+        for (int i = 0; i < LAUNCHES; i++) {
+            long start = SystemClock.uptimeMillis();
+            try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+                // Idle only once the first frame has been drawn
+                instrumentation.waitForIdleSync();
+                long end = SystemClock.uptimeMillis();
+                launchMillis[i] = end - start;
+                if (i == 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                    processToFirstFrameMillis = end - Process.getStartUptimeMillis();
+                }
+            }
+        }
+
+        long[] warm = new long[LAUNCHES - 1];
+        System.arraycopy(launchMillis, 1, warm, 0, warm.length);
+        JSONObject results = new JSONObject();
+        results.put("processStartToFirstFrameMillis", processToFirstFrameMillis);
+        results.put("firstLaunchMillis", launchMillis[0]);
+        results.put("warmLaunchP50Millis", BenchmarkReport.percentile(warm, warm.length, 50));
+        results.put("warmLaunchMaxMillis", BenchmarkReport.percentile(warm, warm.length, 100));
+        BenchmarkReport.write("startup", results);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.modernapp;
+
+import java.io.File;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Preference store backed by an append-only binary log.
+ * Each write appends one length-prefixed record per changed key, and later records
+ * override earlier ones. The log is read through a memory-mapped buffer and is
+ * compacted in the background once it holds many more records than live keys.
+ * See {@link RecordLog} for how records are stored.
+ *
+ * Record layout: [int length][byte type][int keyLength][key bytes][value],
+ * where a string value is [int valueLength][value bytes], a boolean value is one byte
+ * and a removed key has no value.
+ */
+public class BinaryLogStore implements PreferenceStore {
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_REMOVED = 3;
+
+    private final RecordLog log;
+    private final Executor compactionExecutor;
+    private final Map<String, Object> values = new HashMap<>();
+    private boolean loaded;
+    private boolean compactionScheduled;
+
+    /**
+     * Constructor
+     *
+     * @param file               the log file
+     * @param compactionExecutor executor on which background compaction runs
+     */
+    public BinaryLogStore(File file, Executor compactionExecutor) {
+        this.log = new RecordLog(file);
+        this.compactionExecutor = compactionExecutor;
+    }
+
+    /**
+     * Checks whether the log file has been created yet
+     *
+     * @return true if the log file exists
+     */
+    public boolean exists() {
+        return log.exists();
+    }
+
+    @Override
+    public synchronized Map<String, ?> load() {
+        ensureLoaded();
+        return new HashMap<>(values);
+    }
+
+    @Override
+    public synchronized void write(Map<String, ?> newValues) {
+        ensureLoaded();
+
+        RecordLog.Records records = new RecordLog.Records();
+        for (Map.Entry<String, ?> entry : newValues.entrySet()) {
+            if (!entry.getValue().equals(values.get(entry.getKey()))) {
+                appendRecord(records, entry.getKey(), entry.getValue());
+            }
+        }
+        for (String key : values.keySet()) {
+            if (!newValues.containsKey(key)) {
+                appendRecord(records, key, null);
+            }
+        }
+        if (records.count() == 0 && log.exists()) {
+            return;
+        }
+        if (!log.append(records)) {
+            return;
+        }
+
+        values.clear();
+        values.putAll(newValues);
+        maybeScheduleCompaction();
+    }
+
+    /**
+     * Replaces the log with one holding exactly the given values. The new log is
+     * written to a temporary file and renamed into place, so after a crash the log
+     * is either missing or complete, never partly written.
+     *
+     * @param newValues a map from key to value, where values are Strings or Booleans
+     * @return true if the new log is in place
+     */
+    public synchronized boolean writeAtomically(Map<String, ?> newValues) {
+        ensureLoaded();
+        Map<String, Object> previous = new HashMap<>(values);
+        values.clear();
+        values.putAll(newValues);
+        if (!rewrite()) {
+            values.clear();
+            values.putAll(previous);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the log into memory on first access
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        log.replay(this::readRecord);
+    }
+
+    /**
+     * Applies one record to the values
+     *
+     * @param record the record payload
+     * @throws BufferUnderflowException if the record is malformed
+     */
+    private void readRecord(ByteBuffer record) {
+        byte type = record.get();
+        String key = RecordLog.readString(record);
+        if (type == TYPE_STRING) {
+            values.put(key, RecordLog.readString(record));
+        } else if (type == TYPE_BOOLEAN) {
+            values.put(key, record.get() != 0);
+        } else if (type == TYPE_REMOVED) {
+            values.remove(key);
+        } else {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    /**
+     * Encodes one record
+     *
+     * @param records the records to add to
+     * @param key     the key
+     * @param value   a String or Boolean, or null to record a removal
+     */
+    private static void appendRecord(RecordLog.Records records, String key, Object value) {
+        byte[] keyBytes = key.getBytes(RecordLog.UTF_8);
+        byte type;
+        byte[] valueBytes = null;
+        int length = 1 + RecordLog.sizeOf(keyBytes);
+        if (value == null) {
+            type = TYPE_REMOVED;
+        } else if (value instanceof String) {
+            type = TYPE_STRING;
+            valueBytes = ((String) value).getBytes(RecordLog.UTF_8);
+            length += RecordLog.sizeOf(valueBytes);
+        } else if (value instanceof Boolean) {
+            type = TYPE_BOOLEAN;
+            length += 1;
+        } else {
+            throw new IllegalArgumentException("Unsupported value type for " + key);
+        }
+
+        ByteBuffer buffer = records.add(length);
+        buffer.put(type);
+        RecordLog.putString(buffer, keyBytes);
+        if (type == TYPE_STRING) {
+            RecordLog.putString(buffer, valueBytes);
+        } else if (type == TYPE_BOOLEAN) {
+            buffer.put((byte) ((Boolean) value ? 1 : 0));
+        }
+    }
+
+    /**
+     * Queues a compaction if the log has grown well past its live contents
+     */
+    private void maybeScheduleCompaction() {
+        if (compactionScheduled || !log.needsCompaction(values.size())) {
+            return;
+        }
+        compactionScheduled = true;
+        compactionExecutor.execute(this::compact);
+    }
+
+    /**
+     * Compacts the log in the background
+     */
+    private synchronized void compact() {
+        compactionScheduled = false;
+        rewrite();
+    }
+
+    /**
+     * Rewrites the log with a single record per live key
+     *
+     * @return true if the rewritten log is in place
+     */
+    private boolean rewrite() {
+        RecordLog.Records records = new RecordLog.Records();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            appendRecord(records, entry.getKey(), entry.getValue());
+        }
+        return log.rewrite(records);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.modernapp;
+
+/**
+ * Source of the current wall-clock time, so that time-based code can be driven
+ * by a fake clock in tests
+ */
+public interface Clock {
+
+    /**
+     * Clock reading the system time
+     */
+    Clock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Gets the current time
+     *
+     * @return milliseconds since the epoch
+     */
+    long currentTimeMillis();
+}
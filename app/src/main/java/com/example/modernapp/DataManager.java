@@ -1,37 +1,214 @@
 package com.example.modernapp;
 
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
+import java.io.File;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Data manager class for handling app preferences and data
  */
 public class DataManager {
+    private static final String TAG = "DataManager";
     private static final String PREF_NAME = "modern_app_prefs";
+    private static final String STORE_FILE_NAME = "modern_app_prefs.bin";
     private static final String KEY_NOTIFICATIONS_ENABLED = "notifications_enabled";
     private static final String KEY_DARK_MODE_ENABLED = "dark_mode_enabled";
     private static final String KEY_USER_NAME = "user_name";
     private static final String KEY_USER_EMAIL = "user_email";
 
-    private static DataManager instance;
-    private final SharedPreferences preferences;
+    private static final String DEFAULT_USER_NAME = "John Doe";
+    private static final String DEFAULT_USER_EMAIL = "john.doe@example.com";
+    private static final boolean DEFAULT_NOTIFICATIONS_ENABLED = true;
+    private static final boolean DEFAULT_DARK_MODE_ENABLED = false;
+
+    // Changes landing within this window are merged into a single disk write
+    private static final long WRITE_COALESCE_WINDOW_MS = 100;
+
+    private static volatile DataManager instance;
+    // Callers that reached the initialization lock, and how long the first one spent there
+    private static final AtomicInteger lockedAccessCount = new AtomicInteger();
+    private static volatile long initDurationNanos;
+    // Loading, writing and compaction all run on this thread, so they never overlap
+    private final ScheduledExecutorService writeExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ExecutorService itemExecutor = Executors.newSingleThreadExecutor();
+    private final ItemDatabase itemDatabase;
+    private final CountDownLatch loadLatch = new CountDownLatch(1);
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    // Copy-on-write: dispatch iterates a stable array without locking
+    private final AtomicReference<ListenerEntry[]> listeners = new AtomicReference<>(new ListenerEntry[0]);
+    // Only accessed on the write executor
+    private PreferenceStore store;
+    private volatile long loadDurationNanos;
+
+    /**
+     * Keys of the stored preferences, used to subscribe to changes
+     */
+    public enum Key {
+        USER_NAME,
+        USER_EMAIL,
+        NOTIFICATIONS_ENABLED,
+        DARK_MODE_ENABLED
+    }
+
+    private static final Key[] KEYS = Key.values();
+
+    // Items stored in the database when it is first created
+    private static final List<ItemModel> SAMPLE_ITEMS = createSampleItems();
+
+    /**
+     * Immutable view of all stored preferences.
+     * Readers get a consistent set of values without locks or map lookups.
+     */
+    public static final class Snapshot {
+        private final String userName;
+        private final String userEmail;
+        private final boolean notificationsEnabled;
+        private final boolean darkModeEnabled;
+
+        Snapshot(String userName, String userEmail, boolean notificationsEnabled, boolean darkModeEnabled) {
+            this.userName = userName;
+            this.userEmail = userEmail;
+            this.notificationsEnabled = notificationsEnabled;
+            this.darkModeEnabled = darkModeEnabled;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public String getUserEmail() {
+            return userEmail;
+        }
+
+        public boolean areNotificationsEnabled() {
+            return notificationsEnabled;
+        }
+
+        public boolean isDarkModeEnabled() {
+            return darkModeEnabled;
+        }
+
+        /**
+         * Checks whether the value for a key differs between two snapshots
+         *
+         * @param key   the key to compare
+         * @param other the snapshot to compare with
+         * @return true if the values differ
+         */
+        boolean differs(Key key, Snapshot other) {
+            switch (key) {
+                case USER_NAME:
+                    return !userName.equals(other.userName);
+                case USER_EMAIL:
+                    return !userEmail.equals(other.userEmail);
+                case NOTIFICATIONS_ENABLED:
+                    return notificationsEnabled != other.notificationsEnabled;
+                case DARK_MODE_ENABLED:
+                    return darkModeEnabled != other.darkModeEnabled;
+                default:
+                    return false;
+            }
+        }
+
+        Snapshot withUserName(String name) {
+            return new Snapshot(name, userEmail, notificationsEnabled, darkModeEnabled);
+        }
+
+        Snapshot withUserEmail(String email) {
+            return new Snapshot(userName, email, notificationsEnabled, darkModeEnabled);
+        }
+
+        Snapshot withNotificationsEnabled(boolean enabled) {
+            return new Snapshot(userName, userEmail, enabled, darkModeEnabled);
+        }
+
+        Snapshot withDarkModeEnabled(boolean enabled) {
+            return new Snapshot(userName, userEmail, notificationsEnabled, enabled);
+        }
+    }
     
     /**
      * Model class for items to be displayed in lists
      */
     public static class ItemModel {
+        // Id of an item that hasn't been stored yet
+        public static final long NO_ID = -1;
+        // Synthetic IDs count down from below NO_ID, so they can't collide with a stored ID
+        private static final AtomicLong nextSyntheticId = new AtomicLong(NO_ID - 1);
+
+        private long id;
+        private volatile long syntheticId = NO_ID;
         private int iconResource;
         private String title;
         private String description;
         
         public ItemModel(int iconResource, String title, String description) {
+            this(NO_ID, iconResource, title, description);
+        }
+
+        public ItemModel(long id, int iconResource, String title, String description) {
+            this.id = id;
             this.iconResource = iconResource;
             this.title = title;
             this.description = description;
         }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Gets the ID identifying this item in lists: its stored ID, or for an item that
+         * hasn't been stored yet, a synthetic one assigned on first use and kept by this object
+         *
+         * @return the stable ID
+         */
+        long getStableId() {
+            if (id != NO_ID) {
+                return id;
+            }
+            long result = syntheticId;
+            if (result == NO_ID) {
+                synchronized (this) {
+                    result = syntheticId;
+                    if (result == NO_ID) {
+                        result = newSyntheticId();
+                        syntheticId = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Takes a synthetic ID for an item that hasn't been stored yet
+         *
+         * @return an ID below {@link #NO_ID}, never handed out before in this process
+         */
+        static long newSyntheticId() {
+            return nextSyntheticId.getAndDecrement();
+        }
         
         public int getIconResource() {
             return iconResource;
@@ -46,13 +223,220 @@ public class DataManager {
         }
     }
 
+    /**
+     * Collects a batch of preference changes to be applied together
+     */
+    public static final class Editor {
+        private String userName;
+        private String userEmail;
+        private Boolean notificationsEnabled;
+        private Boolean darkModeEnabled;
+
+        private Editor() {
+        }
+
+        public Editor setUserName(String name) {
+            this.userName = name;
+            return this;
+        }
+
+        public Editor setUserEmail(String email) {
+            this.userEmail = email;
+            return this;
+        }
+
+        public Editor setNotificationsEnabled(boolean enabled) {
+            this.notificationsEnabled = enabled;
+            return this;
+        }
+
+        public Editor setDarkModeEnabled(boolean enabled) {
+            this.darkModeEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Applies the collected changes on top of a snapshot
+         *
+         * @param current the snapshot to start from
+         * @return a snapshot with the changes applied
+         */
+        private Snapshot applyTo(Snapshot current) {
+            Snapshot result = current;
+            if (userName != null) {
+                result = result.withUserName(userName);
+            }
+            if (userEmail != null) {
+                result = result.withUserEmail(userEmail);
+            }
+            if (notificationsEnabled != null) {
+                result = result.withNotificationsEnabled(notificationsEnabled);
+            }
+            if (darkModeEnabled != null) {
+                result = result.withDarkModeEnabled(darkModeEnabled);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Transaction run against an {@link Editor}
+     */
+    public interface Transaction {
+        void edit(Editor editor);
+    }
+
+    /**
+     * Callback delivering the loaded preferences on the main thread
+     */
+    public interface OnSnapshotLoadedListener {
+        void onSnapshotLoaded(Snapshot snapshot);
+    }
+
+    /**
+     * Callback delivering the items on the main thread
+     */
+    public interface OnItemsLoadedListener {
+        void onItemsLoaded(List<ItemModel> items);
+    }
+
+    /**
+     * Callback delivering a paged list of the items on the main thread
+     */
+    public interface OnPagedItemsLoadedListener {
+        void onPagedItemsLoaded(PagedItemList items);
+    }
+
+    /**
+     * Listener notified when the value for a subscribed key changes.
+     * Listeners run synchronously on the thread that made the change.
+     */
+    public interface OnPreferenceChangeListener {
+        void onPreferenceChanged(Key key, Snapshot snapshot);
+    }
+
+    /**
+     * Registry entry holding a listener weakly, so that a forgotten
+     * subscription doesn't keep its owner alive
+     */
+    private static final class ListenerEntry {
+        final Key key;
+        final WeakReference<OnPreferenceChangeListener> listener;
+
+        ListenerEntry(Key key, OnPreferenceChangeListener listener) {
+            this.key = key;
+            this.listener = new WeakReference<>(listener);
+        }
+    }
+
     /**
      * Private constructor
      *
      * @param context application context
      */
     private DataManager(Context context) {
-        preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        itemDatabase = new ItemDatabase(context, SAMPLE_ITEMS);
+        writeExecutor.execute(() -> loadSnapshot(context));
+    }
+
+    /**
+     * Loads the stored preferences into the snapshot. Runs on the write executor.
+     *
+     * @param context application context
+     */
+    private void loadSnapshot(Context context) {
+        long start = System.nanoTime();
+        try {
+            store = openStore(context);
+            snapshot.set(readSnapshot(store.load()));
+        } catch (RuntimeException e) {
+            // Keep reading and writing the XML preferences rather than lose every later change
+            Log.e(TAG, "Failed to open the preference store, using the XML preferences", e);
+            store = legacyStore(context);
+            snapshot.set(readSnapshot(store.load()));
+        } finally {
+            // Fall back to defaults rather than leave readers waiting forever
+            snapshot.compareAndSet(null, readSnapshot(Collections.<String, Object>emptyMap()));
+            loadDurationNanos = System.nanoTime() - start;
+            loadLatch.countDown();
+            Log.d(TAG, "Loaded preferences in " + TimeUnit.NANOSECONDS.toMicros(loadDurationNanos) + "us");
+        }
+    }
+
+    /**
+     * Opens the binary preference store, migrating the XML preferences on first run.
+     * Keeps using the XML preferences if the migration fails.
+     *
+     * @param context application context
+     * @return the store
+     */
+    private PreferenceStore openStore(Context context) {
+        BinaryLogStore binaryStore = new BinaryLogStore(
+                new File(context.getFilesDir(), STORE_FILE_NAME), writeExecutor);
+        if (!binaryStore.exists()) {
+            PreferenceStore legacyStore = legacyStore(context);
+            // The log only appears once complete, so a crash here leaves the XML to migrate next time
+            if (!binaryStore.writeAtomically(migratableValues(legacyStore.load()))) {
+                return legacyStore;
+            }
+            legacyStore.write(Collections.<String, Object>emptyMap());
+        }
+        return binaryStore;
+    }
+
+    /**
+     * Creates the store of the XML preferences
+     *
+     * @param context application context
+     * @return the store
+     */
+    private static PreferenceStore legacyStore(Context context) {
+        return new SharedPreferencesStore(context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE));
+    }
+
+    /**
+     * Picks the values the binary store can hold out of the XML preferences.
+     * Values of other types were never written by this app, and are dropped.
+     *
+     * @param values the XML preferences
+     * @return the String and Boolean values
+     */
+    static Map<String, Object> migratableValues(Map<String, ?> values) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof String || value instanceof Boolean) {
+                result.put(entry.getKey(), value);
+            } else {
+                Log.w(TAG, "Not migrating " + entry.getKey() + ", unsupported value type "
+                        + (value != null ? value.getClass().getSimpleName() : null));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads stored values into a new snapshot
+     *
+     * @param values the stored values
+     * @return the snapshot
+     */
+    private static Snapshot readSnapshot(Map<String, ?> values) {
+        return new Snapshot(
+                getValue(values, KEY_USER_NAME, DEFAULT_USER_NAME),
+                getValue(values, KEY_USER_EMAIL, DEFAULT_USER_EMAIL),
+                getValue(values, KEY_NOTIFICATIONS_ENABLED, DEFAULT_NOTIFICATIONS_ENABLED),
+                getValue(values, KEY_DARK_MODE_ENABLED, DEFAULT_DARK_MODE_ENABLED)
+        );
+    }
+
+    /**
+     * Gets a stored value, falling back to a default when it is missing or of the wrong type
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T getValue(Map<String, ?> values, String key, T defaultValue) {
+        Object value = values.get(key);
+        return defaultValue.getClass().isInstance(value) ? (T) value : defaultValue;
     }
 
     /**
@@ -61,20 +445,261 @@ public class DataManager {
      * @param context application context
      * @return the DataManager instance
      */
-    public static synchronized DataManager getInstance(Context context) {
+    public static DataManager getInstance(Context context) {
+        // Lock-free once initialized: a single volatile read
+        DataManager result = instance;
+        if (result == null) {
+            result = createInstance(context);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the singleton instance under the class lock if no other thread has
+     *
+     * @param context application context
+     * @return the DataManager instance
+     */
+    private static synchronized DataManager createInstance(Context context) {
+        lockedAccessCount.incrementAndGet();
         if (instance == null) {
+            long start = System.nanoTime();
             instance = new DataManager(context.getApplicationContext());
+            initDurationNanos = System.nanoTime() - start;
+            Log.d(TAG, "Initialized in " + TimeUnit.NANOSECONDS.toMicros(initDurationNanos)
+                    + "us on " + Thread.currentThread().getName());
+        } else {
+            Log.d(TAG, "Waited for initialization on " + Thread.currentThread().getName());
         }
         return instance;
     }
 
+    /**
+     * Creates the singleton instance so that preferences start loading in the
+     * background at process start, ahead of the first activity
+     *
+     * @param context application context
+     */
+    public static void prewarm(Context context) {
+        getInstance(context);
+    }
+
+    /**
+     * Gets the number of getInstance calls that had to take the initialization lock.
+     * Anything above one means callers raced or blocked on first access.
+     *
+     * @return the number of locked accesses
+     */
+    public static int getLockedAccessCount() {
+        return lockedAccessCount.get();
+    }
+
+    /**
+     * Gets how long the first access spent creating the instance
+     *
+     * @return the initialization time in nanoseconds, or 0 if not initialized yet
+     */
+    public static long getInitDurationNanos() {
+        return initDurationNanos;
+    }
+
+    /**
+     * Gets how long loading the stored preferences took
+     *
+     * @return the load time in nanoseconds, or 0 if not loaded yet
+     */
+    public long getLoadDurationNanos() {
+        return loadDurationNanos;
+    }
+
+    /**
+     * Delivers the preferences to a listener on the main thread once they are loaded.
+     * If they are already loaded and this is called on the main thread, the listener
+     * runs immediately.
+     *
+     * @param listener the listener to notify
+     */
+    public void load(OnSnapshotLoadedListener listener) {
+        Snapshot current = snapshot.get();
+        if (current != null && Looper.myLooper() == Looper.getMainLooper()) {
+            listener.onSnapshotLoaded(current);
+            return;
+        }
+        // Queued behind the load task, so the snapshot is ready when this runs
+        writeExecutor.execute(() -> mainHandler.post(() -> listener.onSnapshotLoaded(snapshot.get())));
+    }
+
+    /**
+     * Gets the loaded snapshot, blocking until the initial load has finished
+     *
+     * @return the current snapshot
+     */
+    private Snapshot awaitSnapshot() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loadLatch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return snapshot.get();
+    }
+
+    /**
+     * Applies a batch of changes as one atomic snapshot swap and one disk write.
+     * The transaction runs exactly once on the calling thread.
+     *
+     * @param transaction the changes to apply
+     */
+    public void edit(Transaction transaction) {
+        Editor editor = new Editor();
+        transaction.edit(editor);
+
+        awaitSnapshot();
+        Snapshot previous;
+        Snapshot updated;
+        do {
+            previous = snapshot.get();
+            updated = editor.applyTo(previous);
+        } while (!snapshot.compareAndSet(previous, updated));
+
+        scheduleWrite();
+        dispatchChanges(previous, updated);
+    }
+
+    /**
+     * Subscribes to changes of a single key. The listener is held weakly, so the
+     * caller must keep its own reference to it for as long as it wants updates.
+     *
+     * @param key      the key to observe
+     * @param listener the listener to notify
+     */
+    public void addOnPreferenceChangeListener(Key key, OnPreferenceChangeListener listener) {
+        ListenerEntry entry = new ListenerEntry(key, listener);
+        ListenerEntry[] current;
+        ListenerEntry[] updated;
+        do {
+            current = listeners.get();
+            updated = copyListeners(current, null, 1);
+            updated[updated.length - 1] = entry;
+        } while (!listeners.compareAndSet(current, updated));
+    }
+
+    /**
+     * Unsubscribes a listener from every key it was registered for
+     *
+     * @param listener the listener to remove
+     */
+    public void removeOnPreferenceChangeListener(OnPreferenceChangeListener listener) {
+        ListenerEntry[] current;
+        do {
+            current = listeners.get();
+        } while (!listeners.compareAndSet(current, copyListeners(current, listener, 0)));
+    }
+
+    /**
+     * Copies the live entries of a listener array, dropping collected listeners
+     *
+     * @param entries    the entries to copy
+     * @param removed    a listener to leave out, or null
+     * @param extraSlots number of empty slots to leave at the end
+     * @return the new array
+     */
+    private static ListenerEntry[] copyListeners(ListenerEntry[] entries,
+                                                 OnPreferenceChangeListener removed, int extraSlots) {
+        ListenerEntry[] copy = new ListenerEntry[entries.length + extraSlots];
+        int live = 0;
+        for (ListenerEntry entry : entries) {
+            OnPreferenceChangeListener listener = entry.listener.get();
+            if (listener != null && listener != removed) {
+                copy[live++] = entry;
+            }
+        }
+        return live == entries.length ? copy : Arrays.copyOf(copy, live + extraSlots);
+    }
+
+    /**
+     * Notifies listeners of every key whose value changed
+     *
+     * @param previous the snapshot before the change
+     * @param updated  the snapshot after the change
+     */
+    private void dispatchChanges(Snapshot previous, Snapshot updated) {
+        ListenerEntry[] entries = listeners.get();
+        boolean foundCollected = false;
+        for (Key key : KEYS) {
+            if (!previous.differs(key, updated)) {
+                continue;
+            }
+            for (ListenerEntry entry : entries) {
+                if (entry.key != key) {
+                    continue;
+                }
+                OnPreferenceChangeListener listener = entry.listener.get();
+                if (listener == null) {
+                    foundCollected = true;
+                } else {
+                    listener.onPreferenceChanged(key, updated);
+                }
+            }
+        }
+        if (foundCollected) {
+            // Removing nothing still prunes the collected entries
+            removeOnPreferenceChangeListener(null);
+        }
+    }
+
+    /**
+     * Schedules a write of the latest snapshot unless one is already pending.
+     * Every change made before the write runs ends up in the same commit.
+     */
+    private void scheduleWrite() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            writeExecutor.schedule(this::writeSnapshot, WRITE_COALESCE_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the latest snapshot to disk in a single commit
+     */
+    private void writeSnapshot() {
+        // Clear the flag first so changes made during the commit schedule another write
+        writeScheduled.set(false);
+        Snapshot current = snapshot.get();
+        Map<String, Object> values = new HashMap<>();
+        values.put(KEY_USER_NAME, current.getUserName());
+        values.put(KEY_USER_EMAIL, current.getUserEmail());
+        values.put(KEY_NOTIFICATIONS_ENABLED, current.areNotificationsEnabled());
+        values.put(KEY_DARK_MODE_ENABLED, current.isDarkModeEnabled());
+        store.write(values);
+    }
+
+    /**
+     * Gets the current preferences snapshot, blocking until it has been loaded.
+     * Prefer {@link #load(OnSnapshotLoadedListener)} on the main thread.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot getSnapshot() {
+        return awaitSnapshot();
+    }
+
     /**
      * Saves whether notifications are enabled
      *
      * @param enabled true if enabled, false otherwise
      */
     public void setNotificationsEnabled(boolean enabled) {
-        preferences.edit().putBoolean(KEY_NOTIFICATIONS_ENABLED, enabled).apply();
+        edit(editor -> editor.setNotificationsEnabled(enabled));
     }
 
     /**
@@ -83,7 +708,7 @@ public class DataManager {
      * @return true if notifications are enabled, false otherwise
      */
     public boolean areNotificationsEnabled() {
-        return preferences.getBoolean(KEY_NOTIFICATIONS_ENABLED, true);
+        return awaitSnapshot().areNotificationsEnabled();
     }
 
     /**
@@ -92,7 +717,7 @@ public class DataManager {
      * @param enabled true if enabled, false otherwise
      */
     public void setDarkModeEnabled(boolean enabled) {
-        preferences.edit().putBoolean(KEY_DARK_MODE_ENABLED, enabled).apply();
+        edit(editor -> editor.setDarkModeEnabled(enabled));
     }
 
     /**
@@ -101,7 +726,7 @@ public class DataManager {
      * @return true if dark mode is enabled, false otherwise
      */
     public boolean isDarkModeEnabled() {
-        return preferences.getBoolean(KEY_DARK_MODE_ENABLED, false);
+        return awaitSnapshot().isDarkModeEnabled();
     }
 
     /**
@@ -110,7 +735,7 @@ public class DataManager {
      * @param name the user name
      */
     public void setUserName(String name) {
-        preferences.edit().putString(KEY_USER_NAME, name).apply();
+        edit(editor -> editor.setUserName(name));
     }
 
     /**
@@ -119,7 +744,7 @@ public class DataManager {
      * @return the user name, or a default value if not set
      */
     public String getUserName() {
-        return preferences.getString(KEY_USER_NAME, "John Doe");
+        return awaitSnapshot().getUserName();
     }
 
     /**
@@ -128,7 +753,7 @@ public class DataManager {
      * @param email the user email
      */
     public void setUserEmail(String email) {
-        preferences.edit().putString(KEY_USER_EMAIL, email).apply();
+        edit(editor -> editor.setUserEmail(email));
     }
 
     /**
@@ -137,15 +762,53 @@ public class DataManager {
      * @return the user email, or a default value if not set
      */
     public String getUserEmail() {
-        return preferences.getString(KEY_USER_EMAIL, "john.doe@example.com");
+        return awaitSnapshot().getUserEmail();
     }
     
     /**
-     * Gets a list of sample items for demonstration purposes
+     * Delivers the sample items to a listener on the main thread once they are read
+     * from the item database in the background. Every item is read, so use
+     * {@link #getPagedItems(OnPagedItemsLoadedListener)} for large lists.
+     *
+     * @param listener the listener to notify
+     */
+    public void getSampleItems(OnItemsLoadedListener listener) {
+        itemExecutor.execute(() -> {
+            List<ItemModel> items = itemDatabase.load(0, itemDatabase.getCount()).toList();
+            mainHandler.post(() -> listener.onItemsLoaded(items));
+        });
+    }
+
+    /**
+     * Gets the local item database
+     *
+     * @return the item database
+     */
+    public ItemDatabase getItemDatabase() {
+        return itemDatabase;
+    }
+
+    /**
+     * Delivers the items to a listener on the main thread as a paged list that loads
+     * them from the local store on demand. The items are counted in the background,
+     * and each call delivers a new list with its own window of pages.
+     *
+     * @param listener the listener to notify
+     */
+    public void getPagedItems(OnPagedItemsLoadedListener listener) {
+        itemExecutor.execute(() -> {
+            PagedItemList items = new PagedItemList(itemDatabase, itemDatabase.getCount(),
+                    itemExecutor, mainHandler::post);
+            mainHandler.post(() -> listener.onPagedItemsLoaded(items));
+        });
+    }
+
+    /**
+     * Creates the sample items seeded into the database
      *
-     * @return a list of sample items
+     * @return an unmodifiable list of sample items
      */
-    public List<ItemModel> getSampleItems() {
+    private static List<ItemModel> createSampleItems() {
         List<ItemModel> items = new ArrayList<>();
         
         // Add sample items
@@ -155,6 +818,6 @@ public class DataManager {
         items.add(new ItemModel(android.R.drawable.ic_menu_gallery, "Gallery", "Browse your media files"));
         items.add(new ItemModel(android.R.drawable.ic_menu_send, "Messages", "Send and receive messages"));
         
-        return items;
+        return Collections.unmodifiableList(items);
     }
 }
\ No newline at end of file
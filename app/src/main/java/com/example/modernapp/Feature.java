@@ -1,16 +1,19 @@
 package com.example.modernapp;
 
 /**
- * Data class representing a feature in the application
+ * Data class representing a feature in the application.
+ * Features are immutable: to change one, submit a list holding a new Feature with the same ID,
+ * and the list rebinds only the fields that differ.
  */
 public class Feature {
-    private int iconResourceId;
-    private String title;
-    private String description;
-    private Class<?> targetActivity;
+    private final long id;
+    private final int iconResourceId;
+    private final String title;
+    private final String description;
+    private final Class<?> targetActivity;
 
     /**
-     * Constructs a new Feature
+     * Constructs a new Feature, identified by the activity it opens
      *
      * @param iconResourceId the resource ID of the icon
      * @param title          the title of the feature
@@ -18,6 +21,21 @@ public class Feature {
      * @param targetActivity the activity to navigate to when clicking on this feature
      */
     public Feature(int iconResourceId, String title, String description, Class<?> targetActivity) {
+        // Stable across processes, unlike the class object's identity hash
+        this(targetActivity.getName().hashCode(), iconResourceId, title, description, targetActivity);
+    }
+
+    /**
+     * Constructs a new Feature with a given ID, for features opening the same activity
+     *
+     * @param id             the ID, the same for every version of the feature
+     * @param iconResourceId the resource ID of the icon
+     * @param title          the title of the feature
+     * @param description    the description of the feature
+     * @param targetActivity the activity to navigate to when clicking on this feature
+     */
+    public Feature(long id, int iconResourceId, String title, String description, Class<?> targetActivity) {
+        this.id = id;
         this.iconResourceId = iconResourceId;
         this.title = title;
         this.description = description;
@@ -25,21 +43,21 @@ public class Feature {
     }
 
     /**
-     * Gets the icon resource ID
+     * Gets the ID identifying this feature. A refreshed copy of the feature has the same ID.
      *
-     * @return the icon resource ID
+     * @return the feature ID
      */
-    public int getIconResourceId() {
-        return iconResourceId;
+    public long getId() {
+        return id;
     }
 
     /**
-     * Sets the icon resource ID
+     * Gets the icon resource ID
      *
-     * @param iconResourceId the icon resource ID
+     * @return the icon resource ID
      */
-    public void setIconResourceId(int iconResourceId) {
-        this.iconResourceId = iconResourceId;
+    public int getIconResourceId() {
+        return iconResourceId;
     }
 
     /**
@@ -51,15 +69,6 @@ public class Feature {
         return title;
     }
 
-    /**
-     * Sets the title
-     *
-     * @param title the title
-     */
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
     /**
      * Gets the description
      *
@@ -69,15 +78,6 @@ public class Feature {
         return description;
     }
 
-    /**
-     * Sets the description
-     *
-     * @param description the description
-     */
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     /**
      * Gets the target activity
      *
@@ -86,13 +86,4 @@ public class Feature {
     public Class<?> getTargetActivity() {
         return targetActivity;
     }
-
-    /**
-     * Sets the target activity
-     *
-     * @param targetActivity the target activity
-     */
-    public void setTargetActivity(Class<?> targetActivity) {
-        this.targetActivity = targetActivity;
-    }
-}
\ No newline at end of file
+}
@@ -1,23 +1,75 @@
 package com.example.modernapp;
 
 import android.content.Context;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ImageView;
-import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
 
 /**
- * Adapter for displaying features in a RecyclerView
+ * Adapter for displaying features in a RecyclerView.
+ * New lists are diffed against the current one on a background thread,
+ * so only the rows that changed are rebound.
  */
 public class FeatureAdapter extends RecyclerView.Adapter<FeatureAdapter.FeatureViewHolder> {
 
-    private List<Feature> features;
+    private static final DiffUtil.ItemCallback<Feature> DIFF_CALLBACK = new DiffUtil.ItemCallback<Feature>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Feature oldItem, @NonNull Feature newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Feature oldItem, @NonNull Feature newItem) {
+            return changes(oldItem, newItem) == 0;
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Feature oldItem, @NonNull Feature newItem) {
+            return changes(oldItem, newItem);
+        }
+
+        private int changes(Feature oldItem, Feature newItem) {
+            return RowChange.diff(oldItem.getIconResourceId(), oldItem.getTitle(), oldItem.getDescription(),
+                    newItem.getIconResourceId(), newItem.getTitle(), newItem.getDescription());
+        }
+    };
+
+    private final AsyncListDiffer<Feature> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final RowTextCache textCache = new RowTextCache();
+    private final IconLoader iconLoader;
+    // Column view of the current features, for the text cache
+    private final ItemColumns featureColumns = new ItemColumns() {
+        @Override
+        public int size() {
+            return differ.getCurrentList().size();
+        }
+
+        @Override
+        public long getId(int index) {
+            return differ.getCurrentList().get(index).getId();
+        }
+
+        @Override
+        public int getIconResource(int index) {
+            return differ.getCurrentList().get(index).getIconResourceId();
+        }
+
+        @Override
+        public String getTitle(int index) {
+            return differ.getCurrentList().get(index).getTitle();
+        }
+
+        @Override
+        public String getDescription(int index) {
+            return differ.getCurrentList().get(index).getDescription();
+        }
+    };
     private Context context;
     private OnFeatureClickListener listener;
 
@@ -36,50 +88,122 @@ public class FeatureAdapter extends RecyclerView.Adapter<FeatureAdapter.FeatureV
      * @param listener the click listener
      */
     public FeatureAdapter(Context context, List<Feature> features, OnFeatureClickListener listener) {
+        this(context, features, listener, new IconLoader(context));
+    }
+
+    /**
+     * Constructs a new FeatureAdapter loading icons through a given loader
+     *
+     * @param context    the context
+     * @param features   the list of features
+     * @param listener   the click listener
+     * @param iconLoader loads the rows' icons
+     */
+    FeatureAdapter(Context context, List<Feature> features, OnFeatureClickListener listener, IconLoader iconLoader) {
         this.context = context;
-        this.features = features;
         this.listener = listener;
+        this.iconLoader = iconLoader;
+        setHasStableIds(true);
+        differ.submitList(features);
+    }
+
+    /**
+     * Replaces the displayed features. The list must not be modified afterwards;
+     * to change a feature, submit a new list.
+     *
+     * @param features the features to display
+     */
+    public void submitList(List<Feature> features) {
+        differ.submitList(features, textCache::onItemsReplaced);
     }
 
     @NonNull
     @Override
     public FeatureViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(context).inflate(R.layout.item_feature, parent, false);
+        View view = ListViewPool.inflate(context, R.layout.item_feature, parent);
         return new FeatureViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull FeatureViewHolder holder, int position) {
-        Feature feature = features.get(position);
-        holder.imageViewItem.setImageResource(feature.getIconResourceId());
-        holder.textViewTitle.setText(feature.getTitle());
-        holder.textViewDescription.setText(feature.getDescription());
-
-        holder.itemView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onFeatureClick(feature, position);
-            }
-        });
+        bind(holder, position, RowChange.ALL);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull FeatureViewHolder holder, int position, @NonNull List<Object> payloads) {
+        bind(holder, position, payloads.isEmpty() ? RowChange.ALL : RowChange.merge(payloads));
+    }
+
+    /**
+     * Updates the fields of a row
+     *
+     * @param holder   the row
+     * @param position the position of the feature
+     * @param changes  {@link RowChange} flags of the fields to update
+     */
+    private void bind(FeatureViewHolder holder, int position, int changes) {
+        long start = PerfMetrics.startTiming();
+        if ((changes & RowChange.ICON) != 0) {
+            iconLoader.load(holder.row, featureColumns.getIconResource(position));
+        }
+        if ((changes & RowChange.TEXT) != 0) {
+            textCache.bind(holder.row, featureColumns, position);
+        }
+        PerfMetrics.recordBind(start);
+    }
+
+    /**
+     * Reports a click on the feature currently bound at a position
+     *
+     * @param position the adapter position of the clicked row
+     */
+    void onItemClick(int position) {
+        if (listener != null) {
+            listener.onFeatureClick(differ.getCurrentList().get(position), position);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull FeatureViewHolder holder) {
+        iconLoader.clear(holder.row);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return ListViewPool.VIEW_TYPE_FEATURE;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).getId();
     }
 
     @Override
     public int getItemCount() {
-        return features.size();
+        return differ.getCurrentList().size();
     }
 
     /**
-     * ViewHolder for feature items
+     * ViewHolder for feature items. The click listener is set once here and looks up
+     * the bound feature when clicked, so binding allocates nothing. It holds no
+     * reference to the adapter, so a pooled holder doesn't keep the old screen alive.
      */
-    public static class FeatureViewHolder extends RecyclerView.ViewHolder {
-        ImageView imageViewItem;
-        TextView textViewTitle;
-        TextView textViewDescription;
+    public static class FeatureViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        FeatureRowView row;
 
         public FeatureViewHolder(@NonNull View itemView) {
             super(itemView);
-            imageViewItem = itemView.findViewById(R.id.imageViewItem);
-            textViewTitle = itemView.findViewById(R.id.textViewTitle);
-            textViewDescription = itemView.findViewById(R.id.textViewDescription);
+            row = (FeatureRowView) itemView;
+            itemView.setOnClickListener(this);
+        }
+
+        @Override
+        public void onClick(View v) {
+            // The position at click time, which stays correct after moves and removals
+            int position = getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                ((FeatureAdapter) getBindingAdapter()).onItemClick(position);
+            }
         }
     }
 }
\ No newline at end of file
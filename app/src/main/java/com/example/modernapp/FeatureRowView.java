@@ -0,0 +1,409 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextDirectionHeuristic;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.LinearLayout;
+
+import androidx.core.graphics.drawable.DrawableCompat;
+
+/**
+ * List row showing an icon, a title and a description.
+ * Replaces a card holding nested layouts and two TextViews: the row is a single view
+ * that measures its text with {@link StaticLayout}s in one pass and draws everything itself.
+ * The icon sits beside the text in a horizontal row, or above it in a vertical one, on the
+ * start side: the right in a right-to-left layout, where text without a strong direction
+ * is laid out right to left too.
+ * Text layouts can also be built ahead of time off the main thread, see {@link TextStyle}.
+ */
+public class FeatureRowView extends View {
+    private final TextPaint titlePaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final TextPaint descriptionPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final boolean vertical;
+    private final int iconSize;
+    private final int iconSpacing;
+    private final int descriptionSpacing;
+    private final int titleMaxLines;
+    private final int descriptionMaxLines;
+    private final ColorStateList iconTint;
+
+    private Drawable icon;
+    private CharSequence title = "";
+    private CharSequence description = "";
+    // Built for the current text at textWidth; null when they need rebuilding
+    private StaticLayout titleLayout;
+    private StaticLayout descriptionLayout;
+    private int textWidth = -1;
+    private boolean rtl;
+
+    /**
+     * Copy of a row's text settings, used to build its text layouts on another thread.
+     * Its paints are never changed, so it can be used from any single thread at a time.
+     */
+    public static final class TextStyle {
+        private final TextPaint titlePaint;
+        private final TextPaint descriptionPaint;
+        private final int titleMaxLines;
+        private final int descriptionMaxLines;
+        private final boolean rtl;
+
+        TextStyle(TextPaint titlePaint, TextPaint descriptionPaint, int titleMaxLines, int descriptionMaxLines,
+                  boolean rtl) {
+            this.titlePaint = titlePaint;
+            this.descriptionPaint = descriptionPaint;
+            this.titleMaxLines = titleMaxLines;
+            this.descriptionMaxLines = descriptionMaxLines;
+            this.rtl = rtl;
+        }
+
+        /**
+         * Checks whether this style still describes a row, whose layout direction may have changed
+         *
+         * @param row the row
+         * @return true if layouts built with this style suit the row
+         */
+        public boolean isFor(FeatureRowView row) {
+            return rtl == row.rtl;
+        }
+
+        /**
+         * Lays out a row's text
+         *
+         * @param title       the title
+         * @param description the description
+         * @param width       the text width of the rows the layouts are for
+         * @return the layouts
+         */
+        public TextLayouts build(CharSequence title, CharSequence description, int width) {
+            return new TextLayouts(title, description, width, rtl,
+                    buildLayout(title, titlePaint, width, titleMaxLines, rtl),
+                    buildLayout(description, descriptionPaint, width, descriptionMaxLines, rtl));
+        }
+    }
+
+    /**
+     * A row's title and description laid out for a given text width
+     */
+    public static final class TextLayouts {
+        final CharSequence title;
+        final CharSequence description;
+        final int width;
+        final boolean rtl;
+        final StaticLayout titleLayout;
+        final StaticLayout descriptionLayout;
+
+        TextLayouts(CharSequence title, CharSequence description, int width, boolean rtl,
+                    StaticLayout titleLayout, StaticLayout descriptionLayout) {
+            this.title = title;
+            this.description = description;
+            this.width = width;
+            this.rtl = rtl;
+            this.titleLayout = titleLayout;
+            this.descriptionLayout = descriptionLayout;
+        }
+
+        /**
+         * Checks whether these layouts show the given text at the given width
+         *
+         * @param title       the title
+         * @param description the description
+         * @param width       the text width
+         * @return true if the layouts can be used as they are
+         */
+        public boolean matches(CharSequence title, CharSequence description, int width) {
+            return this.width == width && TextUtils.equals(this.title, title)
+                    && TextUtils.equals(this.description, description);
+        }
+    }
+
+    public FeatureRowView(Context context) {
+        this(context, null);
+    }
+
+    public FeatureRowView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        float scaledDensity = getResources().getDisplayMetrics().scaledDensity;
+
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.FeatureRowView);
+        try {
+            vertical = a.getInt(R.styleable.FeatureRowView_android_orientation,
+                    LinearLayout.HORIZONTAL) == LinearLayout.VERTICAL;
+            iconSize = a.getDimensionPixelSize(R.styleable.FeatureRowView_rowIconSize, Math.round(48 * density));
+            iconSpacing = a.getDimensionPixelSize(R.styleable.FeatureRowView_rowIconSpacing, Math.round(16 * density));
+            iconTint = a.getColorStateList(R.styleable.FeatureRowView_rowIconTint);
+            descriptionSpacing = a.getDimensionPixelSize(R.styleable.FeatureRowView_rowDescriptionSpacing, 0);
+            titleMaxLines = a.getInt(R.styleable.FeatureRowView_rowTitleMaxLines, Integer.MAX_VALUE);
+            descriptionMaxLines = a.getInt(R.styleable.FeatureRowView_rowDescriptionMaxLines, Integer.MAX_VALUE);
+
+            titlePaint.setTextSize(a.getDimension(R.styleable.FeatureRowView_rowTitleTextSize, 16 * scaledDensity));
+            titlePaint.setColor(a.getColor(R.styleable.FeatureRowView_rowTitleTextColor, 0xDE000000));
+            titlePaint.setTypeface(Typeface.DEFAULT_BOLD);
+            descriptionPaint.setTextSize(a.getDimension(R.styleable.FeatureRowView_rowDescriptionTextSize,
+                    14 * scaledDensity));
+            descriptionPaint.setColor(a.getColor(R.styleable.FeatureRowView_rowDescriptionTextColor, 0x8A000000));
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * Sets the icon drawable, applying the row's icon tint.
+     * Icons are normally loaded through {@link IconLoader} rather than set directly.
+     *
+     * @param drawable the icon, or null to show none
+     */
+    public void setIconDrawable(Drawable drawable) {
+        if (drawable != null && iconTint != null) {
+            drawable = DrawableCompat.wrap(drawable.mutate());
+            DrawableCompat.setTintList(drawable, iconTint);
+        }
+        icon = drawable;
+        // The icon size is fixed, so only a redraw is needed
+        invalidate();
+    }
+
+    /**
+     * Gets the size the icon is drawn at
+     *
+     * @return the icon width and height in pixels
+     */
+    public int getIconSize() {
+        return iconSize;
+    }
+
+    /**
+     * Sets the title and description
+     *
+     * @param title       the title
+     * @param description the description
+     */
+    public void setText(CharSequence title, CharSequence description) {
+        title = title != null ? title : "";
+        description = description != null ? description : "";
+        boolean titleChanged = !TextUtils.equals(title, this.title);
+        boolean descriptionChanged = !TextUtils.equals(description, this.description);
+        if (!titleChanged && !descriptionChanged) {
+            return;
+        }
+        // Only the text that changed is laid out again
+        if (titleChanged) {
+            this.title = title;
+            titleLayout = null;
+        }
+        if (descriptionChanged) {
+            this.description = description;
+            descriptionLayout = null;
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets the title and description from layouts built ahead of time. Only the text that
+     * changed takes its new layout. Layouts built for a different width or layout direction
+     * are ignored and the text is laid out again.
+     *
+     * @param layouts the text layouts
+     */
+    public void setText(TextLayouts layouts) {
+        if (layouts.width != textWidth || layouts.rtl != rtl) {
+            setText(layouts.title, layouts.description);
+            return;
+        }
+        // Text already laid out at this width keeps its layout
+        boolean titleChanged = titleLayout == null || !TextUtils.equals(layouts.title, title);
+        boolean descriptionChanged = descriptionLayout == null || !TextUtils.equals(layouts.description, description);
+        if (!titleChanged && !descriptionChanged) {
+            return;
+        }
+        if (titleChanged) {
+            title = layouts.title;
+            titleLayout = layouts.titleLayout;
+        }
+        if (descriptionChanged) {
+            description = layouts.description;
+            descriptionLayout = layouts.descriptionLayout;
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Gets the layout of the title
+     *
+     * @return the layout, or null if the title changed since the row was last measured
+     */
+    StaticLayout getTitleLayout() {
+        return titleLayout;
+    }
+
+    /**
+     * Gets the layout of the description
+     *
+     * @return the layout, or null if the description changed since the row was last measured
+     */
+    StaticLayout getDescriptionLayout() {
+        return descriptionLayout;
+    }
+
+    /**
+     * Gets a copy of this row's text settings for building layouts ahead of time
+     *
+     * @return the text style
+     */
+    public TextStyle getTextStyle() {
+        return new TextStyle(new TextPaint(titlePaint), new TextPaint(descriptionPaint),
+                titleMaxLines, descriptionMaxLines, rtl);
+    }
+
+    /**
+     * Gets the width available to the text
+     *
+     * @return the text width, or -1 if the row hasn't been measured yet
+     */
+    public int getTextWidth() {
+        return textWidth;
+    }
+
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        super.onRtlPropertiesChanged(layoutDirection);
+        boolean layoutRtl = layoutDirection == LAYOUT_DIRECTION_RTL;
+        if (layoutRtl != rtl) {
+            // Neutral text takes its direction from the layout, so lay it out again
+            rtl = layoutRtl;
+            titleLayout = null;
+            descriptionLayout = null;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // Left and right padding are resolved from start and end padding for the layout direction
+        int width = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? getSuggestedMinimumWidth() : MeasureSpec.getSize(widthMeasureSpec);
+        int contentWidth = Math.max(0, width - getPaddingLeft() - getPaddingRight());
+        int availableTextWidth = vertical ? contentWidth : Math.max(0, contentWidth - iconSize - iconSpacing);
+        if (availableTextWidth != textWidth) {
+            textWidth = availableTextWidth;
+            titleLayout = null;
+            descriptionLayout = null;
+        }
+        if (titleLayout == null) {
+            titleLayout = buildLayout(title, titlePaint, textWidth, titleMaxLines, rtl);
+        }
+        if (descriptionLayout == null) {
+            descriptionLayout = buildLayout(description, descriptionPaint, textWidth, descriptionMaxLines, rtl);
+        }
+
+        int textHeight = textHeight();
+        int contentHeight = vertical ? iconSize + iconSpacing + textHeight : Math.max(iconSize, textHeight);
+        int height = contentHeight + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+        // The icon sits on the start side
+        int iconLeft = rtl ? getWidth() - getPaddingRight() - iconSize : left;
+        if (icon != null) {
+            icon.setBounds(iconLeft, top, iconLeft + iconSize, top + iconSize);
+            icon.draw(canvas);
+        }
+        if (titleLayout == null || descriptionLayout == null) {
+            return;
+        }
+
+        int saveCount = canvas.save();
+        if (vertical) {
+            canvas.translate(left, top + iconSize + iconSpacing);
+        } else if (rtl) {
+            canvas.translate(left, top);
+        } else {
+            canvas.translate(left + iconSize + iconSpacing, top);
+        }
+        drawLayout(canvas, titleLayout, titleMaxLines);
+        if (description.length() > 0) {
+            canvas.translate(0, visibleHeight(titleLayout, titleMaxLines) + descriptionSpacing);
+            drawLayout(canvas, descriptionLayout, descriptionMaxLines);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        // Expose the drawn text, which TalkBack can't otherwise see
+        info.setText(TextUtils.concat(title, "\n", description));
+    }
+
+    private int textHeight() {
+        int height = visibleHeight(titleLayout, titleMaxLines);
+        if (description.length() > 0) {
+            height += descriptionSpacing + visibleHeight(descriptionLayout, descriptionMaxLines);
+        }
+        return height;
+    }
+
+    private static void drawLayout(Canvas canvas, StaticLayout layout, int maxLines) {
+        if (layout.getLineCount() > maxLines) {
+            // Older platforms can't limit the lines of a layout, so the extra lines are clipped
+            canvas.save();
+            canvas.clipRect(0, 0, layout.getWidth(), visibleHeight(layout, maxLines));
+            layout.draw(canvas);
+            canvas.restore();
+        } else {
+            layout.draw(canvas);
+        }
+    }
+
+    private static int visibleHeight(StaticLayout layout, int maxLines) {
+        return layout.getLineBottom(Math.min(layout.getLineCount(), maxLines) - 1);
+    }
+
+    /**
+     * Lays out text in a fixed width, ellipsizing it after maxLines
+     *
+     * @param text     the text
+     * @param paint    the paint to measure with
+     * @param width    the width available
+     * @param maxLines maximum number of lines shown
+     * @param rtl      whether text without a strong direction is laid out right to left;
+     *                 only honored from Android M, like the rest of the builder options
+     * @return the layout
+     */
+    static StaticLayout buildLayout(CharSequence text, TextPaint paint, int width, int maxLines, boolean rtl) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            TextDirectionHeuristic direction = rtl
+                    ? TextDirectionHeuristics.FIRSTSTRONG_RTL : TextDirectionHeuristics.FIRSTSTRONG_LTR;
+            return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                    .setTextDirection(direction)
+                    .setMaxLines(maxLines)
+                    .setEllipsize(TextUtils.TruncateAt.END)
+                    .setIncludePad(false)
+                    .build();
+        }
+        if (maxLines == 1) {
+            text = TextUtils.ellipsize(text, paint, width, TextUtils.TruncateAt.END);
+        }
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+    }
+}
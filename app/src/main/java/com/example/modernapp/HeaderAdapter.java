@@ -0,0 +1,65 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adapter showing a single static view, used as a header section in front of
+ * a list's other adapters in a {@link androidx.recyclerview.widget.ConcatAdapter}
+ */
+public class HeaderAdapter extends RecyclerView.Adapter<HeaderAdapter.HeaderViewHolder> {
+
+    private final Context context;
+    private final int layout;
+
+    /**
+     * Constructs a new HeaderAdapter
+     *
+     * @param context the context
+     * @param layout  the header layout, which is also used as its view type
+     */
+    public HeaderAdapter(Context context, int layout) {
+        this.context = context;
+        this.layout = layout;
+        setHasStableIds(true);
+    }
+
+    @NonNull
+    @Override
+    public HeaderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new HeaderViewHolder(ListViewPool.inflate(context, layout, parent));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull HeaderViewHolder holder, int position) {
+        // The header has no data to bind
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return layout;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return 0;
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+
+    /**
+     * ViewHolder for the header
+     */
+    public static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        public HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.target.CustomViewTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+/**
+ * Loads row icons through Glide, so icons are decoded off the main thread,
+ * downsampled to the size they are drawn at, and kept in Glide's memory LRU and disk caches.
+ * Icons can be drawable resources or, for future item models, remote or file URIs.
+ *
+ * Requests follow the lifecycle of the screen the loader was created for, and a row's
+ * pending request is cancelled when the row is recycled; see {@link #clear(FeatureRowView)}.
+ */
+public class IconLoader {
+    private final RequestManager requestManager;
+
+    /**
+     * Constructor
+     *
+     * @param context the screen's context, whose lifecycle requests follow
+     */
+    public IconLoader(Context context) {
+        this.requestManager = Glide.with(context);
+    }
+
+    /**
+     * Loads a drawable resource into a row's icon
+     *
+     * @param row   the row
+     * @param resId the drawable resource, or 0 for no icon, as for a row still being loaded
+     */
+    public void load(FeatureRowView row, int resId) {
+        if (resId == 0) {
+            clear(row);
+            return;
+        }
+        into(row, requestManager.load(resId));
+    }
+
+    /**
+     * Loads an image from a URI into a row's icon
+     *
+     * @param row the row
+     * @param uri the image URI, such as an http(s), file or content URI
+     */
+    public void load(FeatureRowView row, Uri uri) {
+        into(row, requestManager.load(uri));
+    }
+
+    /**
+     * Cancels a row's pending request and releases its icon, for when the row is recycled
+     *
+     * @param row the row
+     */
+    public void clear(FeatureRowView row) {
+        requestManager.clear(target(row));
+    }
+
+    private static void into(FeatureRowView row, RequestBuilder<Drawable> request) {
+        int size = row.getIconSize();
+        request.override(size, size)
+                .downsample(DownsampleStrategy.CENTER_INSIDE)
+                .diskCacheStrategy(DiskCacheStrategy.AUTOMATIC)
+                .into(target(row));
+    }
+
+    /**
+     * Gets the target of a row, created once and kept in a view tag
+     *
+     * @param row the row
+     * @return the row's target
+     */
+    private static IconTarget target(FeatureRowView row) {
+        IconTarget target = (IconTarget) row.getTag(R.id.icon_target);
+        if (target == null) {
+            target = new IconTarget(row);
+            row.setTag(R.id.icon_target, target);
+        }
+        return target;
+    }
+
+    /**
+     * Glide target drawing into a row's icon. The size comes from override(),
+     * so requests start without waiting for the row to be laid out.
+     */
+    private static final class IconTarget extends CustomViewTarget<FeatureRowView, Drawable> {
+        IconTarget(@NonNull FeatureRowView row) {
+            super(row);
+        }
+
+        @Override
+        public void onResourceReady(@NonNull Drawable resource, @Nullable Transition<? super Drawable> transition) {
+            view.setIconDrawable(resource);
+        }
+
+        @Override
+        public void onLoadFailed(@Nullable Drawable errorDrawable) {
+            view.setIconDrawable(errorDrawable);
+        }
+
+        @Override
+        protected void onResourceCleared(@Nullable Drawable placeholder) {
+            // The bitmap may be reused once cleared, so it must not be drawn any more
+            view.setIconDrawable(placeholder);
+        }
+    }
+}
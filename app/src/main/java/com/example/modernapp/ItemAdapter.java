@@ -1,25 +1,39 @@
 package com.example.modernapp;
 
 import android.content.Context;
-import android.view.LayoutInflater;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ImageView;
-import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
- * Adapter for the RecyclerView to display items
+ * Adapter for the RecyclerView to display items.
+ * Items are identified by their stable IDs; submitted lists are diffed against
+ * the current one on a background thread so only changed rows are rebound.
+ * Items that haven't been stored yet have a synthetic ID, assigned when their
+ * {@link ItemStore} is built and kept by the item, so it doesn't change as rows shift.
  */
 public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ViewHolder> {
-    
+
+    // Shared by all adapters; diffs are short and run one at a time
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private Context context;
-    private List<DataManager.ItemModel> itemList;
+    private ItemColumns items;
+    private final RowTextCache textCache;
+    private final IconLoader iconLoader;
     private OnItemClickListener listener;
+    // Incremented on every submit so that a diff finishing late is dropped
+    private int submitGeneration;
     
     // Interface for item click events
     public interface OnItemClickListener {
@@ -27,10 +41,124 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ViewHolder> {
     }
     
     public ItemAdapter(Context context, List<DataManager.ItemModel> itemList) {
+        this(context, ItemStore.fromList(itemList));
+    }
+
+    /**
+     * Constructs an adapter reading items by index, such as an {@link ItemStore}
+     * or a {@link PagedItemList}. Item IDs must be unique and positive, as they are for
+     * items loaded from {@link ItemDatabase}, or the synthetic IDs an {@link ItemStore} assigns.
+     *
+     * @param context the context
+     * @param items   the items to display
+     */
+    public ItemAdapter(Context context, ItemColumns items) {
+        this(context, items, new RowTextCache());
+    }
+
+    /**
+     * Constructs an adapter with its own row text cache, such as one that
+     * prefetches nothing, for comparing scrolling with and without it
+     *
+     * @param context   the context
+     * @param items     the items to display
+     * @param textCache the cache of the rows' text layouts
+     */
+    ItemAdapter(Context context, ItemColumns items, RowTextCache textCache) {
+        this(context, items, textCache, new IconLoader(context));
+    }
+
+    /**
+     * Constructs an adapter with its own row text cache and icon loader
+     *
+     * @param context    the context
+     * @param items      the items to display
+     * @param textCache  the cache of the rows' text layouts
+     * @param iconLoader loads the rows' icons
+     */
+    ItemAdapter(Context context, ItemColumns items, RowTextCache textCache, IconLoader iconLoader) {
         this.context = context;
-        this.itemList = itemList;
+        this.items = items;
+        this.textCache = textCache;
+        this.iconLoader = iconLoader;
+        setHasStableIds(true);
+        listenForPages(items);
+    }
+
+    /**
+     * Replaces the displayed items
+     *
+     * @param itemList the items to display
+     */
+    public void submitList(List<DataManager.ItemModel> itemList) {
+        submitItems(ItemStore.fromList(itemList));
+    }
+
+    /**
+     * Replaces the displayed items. Between two {@link ItemStore}s the difference is
+     * computed in the background and applied on the main thread, so only inserted,
+     * removed, moved and changed rows are updated. The items must not change afterwards.
+     * Any other items, such as a {@link PagedItemList}, are swapped in without a diff:
+     * they may only be read on the main thread, and diffing them would load every page.
+     * Rows of a paged list read as placeholders are bound again once their page is loaded.
+     * Must be called on the main thread.
+     *
+     * @param newItems the items to display
+     */
+    public void submitItems(ItemColumns newItems) {
+        int generation = ++submitGeneration;
+        ItemColumns oldItems = items;
+        if (!(oldItems instanceof ItemStore) || !(newItems instanceof ItemStore)) {
+            // Rows keep their views through stable IDs, so a full rebind is cheap enough
+            if (oldItems instanceof PagedItemList) {
+                ((PagedItemList) oldItems).setOnPageLoadedListener(null);
+            }
+            items = newItems;
+            listenForPages(newItems);
+            textCache.onItemsReplaced();
+            notifyDataSetChanged();
+            return;
+        }
+        if (oldItems.size() == 0 || newItems.size() == 0) {
+            // Nothing to match up, so skip the diff
+            items = newItems;
+            textCache.onItemsReplaced();
+            if (oldItems.size() > 0) {
+                notifyItemRangeRemoved(0, oldItems.size());
+            } else if (newItems.size() > 0) {
+                notifyItemRangeInserted(0, newItems.size());
+            }
+            return;
+        }
+
+        DIFF_EXECUTOR.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new ColumnsDiffCallback(oldItems, newItems));
+            mainHandler.post(() -> {
+                if (generation == submitGeneration) {
+                    items = newItems;
+                    textCache.onItemsReplaced();
+                    result.dispatchUpdatesTo(ItemAdapter.this);
+                }
+            });
+        });
     }
     
+    /**
+     * Rebinds the rows of a paged list as their pages are loaded
+     *
+     * @param newItems the items being displayed
+     */
+    private void listenForPages(ItemColumns newItems) {
+        if (newItems instanceof PagedItemList) {
+            ((PagedItemList) newItems).setOnPageLoadedListener((positionStart, itemCount) -> {
+                // A page may arrive after its list was replaced
+                if (items == newItems) {
+                    notifyItemRangeChanged(positionStart, itemCount);
+                }
+            });
+        }
+    }
+
     public void setOnItemClickListener(OnItemClickListener listener) {
         this.listener = listener;
     }
@@ -38,43 +166,121 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ViewHolder> {
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(context).inflate(R.layout.list_item, parent, false);
+        View view = ListViewPool.inflate(context, R.layout.list_item, parent);
         return new ViewHolder(view);
     }
     
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        DataManager.ItemModel item = itemList.get(position);
-        
-        holder.imageViewItem.setImageResource(item.getIconResource());
-        holder.textViewTitle.setText(item.getTitle());
-        holder.textViewDescription.setText(item.getDescription());
+        bind(holder, position, RowChange.ALL);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        bind(holder, position, payloads.isEmpty() ? RowChange.ALL : RowChange.merge(payloads));
+    }
+
+    /**
+     * Updates the fields of a row
+     *
+     * @param holder   the row
+     * @param position the position of the item
+     * @param changes  {@link RowChange} flags of the fields to update
+     */
+    private void bind(ViewHolder holder, int position, int changes) {
+        long start = PerfMetrics.startTiming();
+        // Read fields straight from the columns, without allocating a model object
+        if ((changes & RowChange.ICON) != 0) {
+            iconLoader.load(holder.row, items.getIconResource(position));
+        }
+        if ((changes & RowChange.TEXT) != 0) {
+            textCache.bind(holder.row, items, position);
+        }
+        PerfMetrics.recordBind(start);
     }
     
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        iconLoader.clear(holder.row);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return ListViewPool.VIEW_TYPE_ITEM;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return items.getId(position);
+    }
+
     @Override
     public int getItemCount() {
-        return itemList.size();
+        return items.size();
     }
     
-    public class ViewHolder extends RecyclerView.ViewHolder {
-        ImageView imageViewItem;
-        TextView textViewTitle;
-        TextView textViewDescription;
+    /**
+     * Compares two sets of items by ID, then field by field
+     */
+    private static class ColumnsDiffCallback extends DiffUtil.Callback {
+        private final ItemColumns oldItems;
+        private final ItemColumns newItems;
+
+        ColumnsDiffCallback(ItemColumns oldItems, ItemColumns newItems) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldItems.getId(oldItemPosition) == newItems.getId(newItemPosition);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return changes(oldItemPosition, newItemPosition) == 0;
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return changes(oldItemPosition, newItemPosition);
+        }
+
+        private int changes(int oldItemPosition, int newItemPosition) {
+            // Interned strings from the same store usually compare by reference
+            return RowChange.diff(oldItems.getIconResource(oldItemPosition), oldItems.getTitle(oldItemPosition),
+                    oldItems.getDescription(oldItemPosition), newItems.getIconResource(newItemPosition),
+                    newItems.getTitle(newItemPosition), newItems.getDescription(newItemPosition));
+        }
+    }
+
+    // Static and resolving its adapter on click, so a pooled holder doesn't keep the old screen alive
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        FeatureRowView row;
         
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
             
-            imageViewItem = itemView.findViewById(R.id.itemImage);
-            textViewTitle = itemView.findViewById(R.id.itemTitle);
-            textViewDescription = itemView.findViewById(R.id.itemDescription);
+            row = (FeatureRowView) itemView;
             
             // Set up click listener
             itemView.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    if (listener != null) {
-                        int position = getAdapterPosition();
-                        if (position != RecyclerView.NO_POSITION) {
+                    int position = getBindingAdapterPosition();
+                    if (position != RecyclerView.NO_POSITION) {
+                        OnItemClickListener listener = ((ItemAdapter) getBindingAdapter()).listener;
+                        if (listener != null) {
                             listener.onItemClick(position);
                         }
                     }
@@ -0,0 +1,23 @@
+package com.example.modernapp;
+
+/**
+ * Read access to items by index, one field at a time, so that binding
+ * a row doesn't need an {@link DataManager.ItemModel} object
+ */
+public interface ItemColumns {
+
+    /**
+     * Gets the number of items
+     *
+     * @return the item count
+     */
+    int size();
+
+    long getId(int index);
+
+    int getIconResource(int index);
+
+    String getTitle(int index);
+
+    String getDescription(int index);
+}
@@ -0,0 +1,188 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SQLite store for list items.
+ * Pages are read by keyset: each page starts after the last ID of the page before it,
+ * which the primary key index finds directly, where an OFFSET would step over every
+ * earlier row. Items are only ever appended, with increasing IDs, so a page boundary
+ * once seen stays valid.
+ */
+public class ItemDatabase extends SQLiteOpenHelper implements ItemSource {
+    private static final String DATABASE_NAME = "items.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_ITEMS = "items";
+    private static final String COLUMN_ID = "_id";
+    private static final String COLUMN_ICON_RESOURCE = "icon_resource";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_DESCRIPTION = "description";
+
+    private static final String SQL_CREATE_TABLE = "CREATE TABLE " + TABLE_ITEMS + " ("
+            + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + COLUMN_ICON_RESOURCE + " INTEGER NOT NULL, "
+            + COLUMN_TITLE + " TEXT NOT NULL, "
+            + COLUMN_DESCRIPTION + " TEXT NOT NULL)";
+    private static final String SQL_CREATE_TITLE_INDEX = "CREATE INDEX items_title_index ON "
+            + TABLE_ITEMS + " (" + COLUMN_TITLE + ")";
+    private static final String SQL_INSERT = "INSERT INTO " + TABLE_ITEMS + " ("
+            + COLUMN_ICON_RESOURCE + ", " + COLUMN_TITLE + ", " + COLUMN_DESCRIPTION + ") VALUES (?, ?, ?)";
+    private static final String SQL_SELECT = "SELECT " + COLUMN_ID + ", " + COLUMN_ICON_RESOURCE + ", "
+            + COLUMN_TITLE + ", " + COLUMN_DESCRIPTION + " FROM " + TABLE_ITEMS;
+
+    private final List<DataManager.ItemModel> seedItems;
+    // Guarded by itself; the ID of the item before each page start seen so far
+    private final TreeMap<Integer, Long> pageBoundaries = new TreeMap<>();
+
+    /**
+     * Constructor. The database is opened lazily on first use.
+     *
+     * @param context   application context
+     * @param seedItems items inserted when the database is first created
+     */
+    public ItemDatabase(Context context, List<DataManager.ItemModel> seedItems) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.seedItems = seedItems;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(SQL_CREATE_TABLE);
+        db.execSQL(SQL_CREATE_TITLE_INDEX);
+        insertAll(db, seedItems);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only one version exists so far
+    }
+
+    /**
+     * Inserts items in a single transaction using one prepared statement
+     *
+     * @param items the items to insert
+     */
+    public void insertAll(List<DataManager.ItemModel> items) {
+        insertAll(getWritableDatabase(), items);
+    }
+
+    private static void insertAll(SQLiteDatabase db, List<DataManager.ItemModel> items) {
+        SQLiteStatement statement = db.compileStatement(SQL_INSERT);
+        db.beginTransaction();
+        try {
+            for (DataManager.ItemModel item : items) {
+                statement.bindLong(1, item.getIconResource());
+                statement.bindString(2, item.getTitle());
+                statement.bindString(3, item.getDescription());
+                statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return (int) DatabaseUtils.queryNumEntries(getReadableDatabase(), TABLE_ITEMS);
+    }
+
+    @Override
+    public ItemStore load(int offset, int limit) {
+        // Start from the nearest boundary at or before the offset, skipping only the rows in between
+        int startOffset = 0;
+        long afterId = 0;
+        synchronized (pageBoundaries) {
+            Map.Entry<Integer, Long> boundary = pageBoundaries.floorEntry(offset);
+            if (boundary != null) {
+                startOffset = boundary.getKey();
+                afterId = boundary.getValue();
+            }
+        }
+        ItemStore items = query(SQL_SELECT + " WHERE " + COLUMN_ID + " > ? ORDER BY " + COLUMN_ID
+                        + " LIMIT ? OFFSET ?",
+                String.valueOf(afterId), String.valueOf(limit), String.valueOf(offset - startOffset));
+        if (items.size() > 0) {
+            synchronized (pageBoundaries) {
+                pageBoundaries.put(offset + items.size(), items.getId(items.size() - 1));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Finds items whose title starts with a prefix, using the title index
+     *
+     * @param prefix the title prefix
+     * @param limit  maximum number of items to return
+     * @return the matching items, ordered by title
+     */
+    public ItemStore findByTitlePrefix(String prefix, int limit) {
+        // A range on the indexed column instead of LIKE, which can't use the index
+        String upperBound = prefixUpperBound(prefix);
+        if (upperBound == null) {
+            return query(SQL_SELECT + " WHERE " + COLUMN_TITLE + " >= ? ORDER BY " + COLUMN_TITLE + " LIMIT ?",
+                    prefix, String.valueOf(limit));
+        }
+        return query(SQL_SELECT + " WHERE " + COLUMN_TITLE + " >= ? AND " + COLUMN_TITLE + " < ?"
+                        + " ORDER BY " + COLUMN_TITLE + " LIMIT ?",
+                prefix, upperBound, String.valueOf(limit));
+    }
+
+    /**
+     * Gets the smallest string sorting after every string that starts with a prefix,
+     * by incrementing its last code point. SQLite compares text as UTF-8 bytes, which
+     * sort in code point order, so characters outside the Basic Multilingual Plane
+     * sort after any bound made by appending a char.
+     *
+     * @param prefix the prefix
+     * @return the bound, or null if every string sorting after the prefix starts with it
+     */
+    static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            int codePoint = prefix.codePointBefore(end);
+            int start = end - Character.charCount(codePoint);
+            if (codePoint < Character.MAX_CODE_POINT) {
+                int next = codePoint + 1;
+                if (next == Character.MIN_SURROGATE) {
+                    // Surrogates aren't characters on their own and can't be encoded
+                    next = Character.MAX_SURROGATE + 1;
+                }
+                return new StringBuilder(start + 2).append(prefix, 0, start).appendCodePoint(next).toString();
+            }
+            // Nothing follows the last code point, so the one before it has to grow
+            end = start;
+        }
+        return null;
+    }
+
+    /**
+     * Runs an item query and reads every row straight into columns
+     *
+     * @param sql  the query
+     * @param args the query arguments
+     * @return the items read
+     */
+    private ItemStore query(String sql, String... args) {
+        try (Cursor cursor = getReadableDatabase().rawQuery(sql, args)) {
+            ItemStore items = new ItemStore(cursor.getCount());
+            while (cursor.moveToNext()) {
+                items.add(cursor.getLong(0), cursor.getInt(1), cursor.getString(2), cursor.getString(3));
+            }
+            items.trimToSize();
+            return items;
+        }
+    }
+}
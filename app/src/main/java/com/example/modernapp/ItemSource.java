@@ -0,0 +1,23 @@
+package com.example.modernapp;
+
+/**
+ * Local store that items can be read from one page at a time
+ */
+public interface ItemSource {
+
+    /**
+     * Gets the total number of items in the store
+     *
+     * @return the item count
+     */
+    int getCount();
+
+    /**
+     * Loads a contiguous range of items. May be called on a background thread.
+     *
+     * @param offset index of the first item to load
+     * @param limit  maximum number of items to load
+     * @return the loaded items, in order
+     */
+    ItemStore load(int offset, int limit);
+}
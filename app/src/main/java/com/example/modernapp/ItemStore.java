@@ -0,0 +1,152 @@
+package com.example.modernapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar item storage. Each field lives in its own primitive array, and titles
+ * and descriptions are interned into a shared string table, so a large number of
+ * items costs a handful of arrays instead of one object per item.
+ *
+ * Items that haven't been stored yet get a synthetic ID below
+ * {@link DataManager.ItemModel#NO_ID} when added, which an {@link DataManager.ItemModel}
+ * keeps, so the same item has the same ID in every store built from it.
+ */
+public class ItemStore implements ItemColumns {
+    private long[] ids;
+    private int[] iconResources;
+    private int[] titleIndexes;
+    private int[] descriptionIndexes;
+    private int size;
+
+    private String[] strings = new String[16];
+    private int stringCount;
+    // Only needed while adding; dropped by trimToSize()
+    private Map<String, Integer> stringIndexes = new HashMap<>();
+
+    /**
+     * Constructs an empty store
+     *
+     * @param capacity number of items to allocate room for
+     */
+    public ItemStore(int capacity) {
+        ids = new long[capacity];
+        iconResources = new int[capacity];
+        titleIndexes = new int[capacity];
+        descriptionIndexes = new int[capacity];
+    }
+
+    /**
+     * Copies a list of items into a new store, with synthetic IDs kept by the items that have none
+     *
+     * @param items the items to copy
+     * @return the store
+     */
+    public static ItemStore fromList(List<DataManager.ItemModel> items) {
+        ItemStore store = new ItemStore(items.size());
+        for (DataManager.ItemModel item : items) {
+            store.add(item.getStableId(), item.getIconResource(), item.getTitle(), item.getDescription());
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * Appends an item
+     *
+     * @param id           the item id, or {@link DataManager.ItemModel#NO_ID} to assign a synthetic one
+     * @param iconResource the icon resource ID
+     * @param title        the title
+     * @param description  the description
+     */
+    public void add(long id, int iconResource, String title, String description) {
+        if (size == ids.length) {
+            int capacity = Math.max(16, size * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            iconResources = Arrays.copyOf(iconResources, capacity);
+            titleIndexes = Arrays.copyOf(titleIndexes, capacity);
+            descriptionIndexes = Arrays.copyOf(descriptionIndexes, capacity);
+        }
+        ids[size] = id != DataManager.ItemModel.NO_ID ? id : DataManager.ItemModel.newSyntheticId();
+        iconResources[size] = iconResource;
+        titleIndexes[size] = intern(title);
+        descriptionIndexes[size] = intern(description);
+        size++;
+    }
+
+    /**
+     * Releases spare capacity and the interning map once no more items will be added
+     */
+    public void trimToSize() {
+        ids = Arrays.copyOf(ids, size);
+        iconResources = Arrays.copyOf(iconResources, size);
+        titleIndexes = Arrays.copyOf(titleIndexes, size);
+        descriptionIndexes = Arrays.copyOf(descriptionIndexes, size);
+        strings = Arrays.copyOf(strings, stringCount);
+        stringIndexes = null;
+    }
+
+    /**
+     * Gets the index of a string in the table, adding it if it is new
+     *
+     * @param value the string
+     * @return its index in the string table
+     */
+    private int intern(String value) {
+        if (stringIndexes == null) {
+            throw new IllegalStateException("Store was trimmed");
+        }
+        Integer index = stringIndexes.get(value);
+        if (index != null) {
+            return index;
+        }
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        strings[stringCount] = value;
+        stringIndexes.put(value, stringCount);
+        return stringCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public int getIconResource(int index) {
+        return iconResources[index];
+    }
+
+    @Override
+    public String getTitle(int index) {
+        return strings[titleIndexes[index]];
+    }
+
+    @Override
+    public String getDescription(int index) {
+        return strings[descriptionIndexes[index]];
+    }
+
+    /**
+     * Copies the items back into model objects. Items with synthetic IDs come back unstored.
+     *
+     * @return a new list of items
+     */
+    public List<DataManager.ItemModel> toList() {
+        List<DataManager.ItemModel> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long id = ids[i] < DataManager.ItemModel.NO_ID ? DataManager.ItemModel.NO_ID : ids[i];
+            items.add(new DataManager.ItemModel(id, getIconResource(i), getTitle(i), getDescription(i)));
+        }
+        return items;
+    }
+}
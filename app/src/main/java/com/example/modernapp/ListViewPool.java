@@ -0,0 +1,257 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pool of list row views, shared by every screen that shows features or items.
+ * Rows are inflated against the application context with the app theme, so views kept
+ * in the pool never hold on to an activity that has been destroyed.
+ *
+ * Rows can also be inflated ahead of demand on a background thread. New rows are
+ * taken from those ready rows first, and inflated on the main thread only when none are left.
+ * Rows built for an old configuration are dropped when it changes, see {@link #onConfigurationChanged}.
+ * All methods must be called on the main thread.
+ */
+public class ListViewPool {
+    private static final String TAG = "ListViewPool";
+
+    // The layout doubles as the view type, so the types of different adapters never clash
+    public static final int VIEW_TYPE_FEATURE = R.layout.item_feature;
+    public static final int VIEW_TYPE_ITEM = R.layout.list_item;
+    public static final int VIEW_TYPE_WELCOME_HEADER = R.layout.item_welcome_header;
+
+    private static final int MAX_FEATURE_VIEWS = 8;
+    private static final int MAX_ITEM_VIEWS = 16;
+    private static final int MAX_HEADER_VIEWS = 1;
+
+    private static RecyclerView.RecycledViewPool pool;
+    private static Context inflationContext;
+    private static int inflationCount;
+    private static final Map<Integer, ReadyRows> readyRows = new HashMap<>();
+    private static Handler inflationHandler;
+
+    /**
+     * Rows of one layout inflated in the background, waiting to be used
+     */
+    private static final class ReadyRows {
+        final ConcurrentLinkedQueue<View> views = new ConcurrentLinkedQueue<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        // Set if background inflation failed, after which rows are only inflated on demand
+        volatile boolean failed;
+        int target;
+    }
+
+    /**
+     * Gets the shared pool, creating it on first use
+     *
+     * @return the pool
+     */
+    public static RecyclerView.RecycledViewPool get() {
+        if (pool == null) {
+            pool = new RecyclerView.RecycledViewPool();
+            pool.setMaxRecycledViews(VIEW_TYPE_FEATURE, MAX_FEATURE_VIEWS);
+            pool.setMaxRecycledViews(VIEW_TYPE_ITEM, MAX_ITEM_VIEWS);
+            pool.setMaxRecycledViews(VIEW_TYPE_WELCOME_HEADER, MAX_HEADER_VIEWS);
+        }
+        return pool;
+    }
+
+    /**
+     * Sets up a list to use the shared pool. Its rows go back into the pool when
+     * the list is detached, so the next screen can reuse them.
+     *
+     * @param recyclerView the list
+     */
+    public static void attach(RecyclerView recyclerView) {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(recyclerView.getContext());
+        layoutManager.setRecycleChildrenOnDetach(true);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setRecycledViewPool(get());
+    }
+
+    /**
+     * Gets a row for the shared pool, preferring one inflated in the background
+     *
+     * @param context any context; only its application context is kept
+     * @param layout  the row layout
+     * @param parent  the list the row will be added to
+     * @return the row, not yet attached to the parent
+     */
+    public static View inflate(Context context, int layout, ViewGroup parent) {
+        ReadyRows rows = readyRows.get(layout);
+        if (rows != null) {
+            View view = rows.views.poll();
+            refill(context, layout, rows);
+            if (view != null) {
+                return view;
+            }
+        }
+        inflationCount++;
+        long start = PerfMetrics.startTiming();
+        View view = LayoutInflater.from(inflationContext(context)).inflate(layout, parent, false);
+        PerfMetrics.recordInflate(start);
+        return view;
+    }
+
+    /**
+     * Starts inflating rows in the background, and keeps that many ready as they are used
+     *
+     * @param context any context; only its application context is kept
+     * @param layout  the row layout
+     * @param count   number of rows to keep ready
+     */
+    public static void inflateAhead(Context context, int layout, int count) {
+        ReadyRows rows = readyRows.get(layout);
+        if (rows == null) {
+            rows = new ReadyRows();
+            readyRows.put(layout, rows);
+        }
+        rows.target = Math.max(rows.target, count);
+        refill(context, layout, rows);
+    }
+
+    /**
+     * Queues background inflation of the rows needed to get back to the target
+     *
+     * @param context any context; only its application context is kept
+     * @param layout  the row layout
+     * @param rows    the ready rows of that layout
+     */
+    private static void refill(Context context, int layout, ReadyRows rows) {
+        if (rows.failed) {
+            return;
+        }
+        Context themedContext = inflationContext(context);
+        int missing = rows.target - rows.views.size() - rows.inFlight.get();
+        for (int i = 0; i < missing; i++) {
+            rows.inFlight.incrementAndGet();
+            inflationHandler().post(() -> {
+                try {
+                    rows.views.add(BackgroundInflater.inflate(themedContext, layout));
+                } catch (RuntimeException e) {
+                    // Some views can't be built off the main thread; those rows are inflated on demand
+                    Log.w(TAG, "Background inflation failed", e);
+                    rows.failed = true;
+                } finally {
+                    rows.inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Inflater state owned by the background thread
+     */
+    private static final class BackgroundInflater {
+        private static LayoutInflater inflater;
+        // Supplies layout params from the row's layout attributes; RecyclerView converts them when adding the row
+        private static ViewGroup parent;
+
+        static View inflate(Context context, int layout) {
+            if (inflater == null || inflater.getContext() != context) {
+                // LayoutInflater isn't thread-safe, so this thread gets its own,
+                // made again when the configuration changes and brings a new context
+                inflater = LayoutInflater.from(context).cloneInContext(context);
+                parent = new FrameLayout(context);
+            }
+            return inflater.inflate(layout, parent, false);
+        }
+    }
+
+    /**
+     * Drops every row built for the old configuration, whose resources, such as strings, colors
+     * and dimensions, may no longer apply. Lists still attached keep the old pool until their
+     * screen is recreated, and rows being inflated in the background are discarded when done.
+     * Rows inflated ahead of demand are inflated again for the new configuration.
+     *
+     * @param context any context; only its application context is kept
+     */
+    public static void onConfigurationChanged(Context context) {
+        if (pool != null) {
+            pool.clear();
+            pool = null;
+        }
+        inflationContext = null;
+        for (Map.Entry<Integer, ReadyRows> entry : readyRows.entrySet()) {
+            // A fresh set, so rows still in flight land in the old one
+            ReadyRows rows = new ReadyRows();
+            rows.target = entry.getValue().target;
+            entry.setValue(rows);
+            refill(context, entry.getKey(), rows);
+        }
+    }
+
+    private static Context inflationContext(Context context) {
+        if (inflationContext == null) {
+            inflationContext = new ContextThemeWrapper(context.getApplicationContext(), R.style.AppTheme);
+            // Resolve the theme now so the background thread never initializes it concurrently
+            inflationContext.getTheme();
+        }
+        return inflationContext;
+    }
+
+    private static Handler inflationHandler() {
+        if (inflationHandler == null) {
+            HandlerThread thread = new HandlerThread("ListInflater", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            inflationHandler = new Handler(thread.getLooper());
+        }
+        return inflationHandler;
+    }
+
+    /**
+     * Fills the pool with rows of one type before the list is first laid out,
+     * so the first frame only binds. Rows already in the pool count towards the total,
+     * and no more rows are created than the pool keeps for the type.
+     *
+     * @param recyclerView the list the rows are created for
+     * @param adapter      the adapter creating the rows
+     * @param viewType     the view type to create
+     * @param count        number of rows wanted in the pool
+     */
+    public static void prewarm(RecyclerView recyclerView, RecyclerView.Adapter<?> adapter, int viewType, int count) {
+        RecyclerView.RecycledViewPool viewPool = get();
+        int target = Math.min(count, maxRecycledViews(viewType));
+        for (int i = viewPool.getRecycledViewCount(viewType); i < target; i++) {
+            viewPool.putRecycledView(adapter.createViewHolder(recyclerView, viewType));
+        }
+    }
+
+    private static int maxRecycledViews(int viewType) {
+        if (viewType == VIEW_TYPE_FEATURE) {
+            return MAX_FEATURE_VIEWS;
+        } else if (viewType == VIEW_TYPE_ITEM) {
+            return MAX_ITEM_VIEWS;
+        } else if (viewType == VIEW_TYPE_WELCOME_HEADER) {
+            return MAX_HEADER_VIEWS;
+        }
+        // RecycledViewPool's default for other types
+        return 5;
+    }
+
+    /**
+     * Gets the number of rows inflated on the main thread since the process started
+     *
+     * @return the inflation count
+     */
+    public static int getInflationCount() {
+        return inflationCount;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.modernapp;
+
+import java.util.Arrays;
+
+/**
+ * LRU cache keyed by primitive longs, so looking an entry up allocates nothing.
+ * {@link android.util.LruCache} boxes every key, which adds garbage on each bind while scrolling.
+ *
+ * Entries live in fixed slots, linked from most to least recently used, and are found
+ * through an open-addressing hash table of slot indexes. Once every slot is taken,
+ * adding an entry reuses the slot of the least recently used one. Thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+final class LongLruCache<V> {
+    private static final int NONE = -1;
+
+    private final int maxSize;
+    private final long[] keys;
+    private final Object[] values;
+    // Recency list through the slots; head is the most recently used
+    private final int[] newer;
+    private final int[] older;
+    // Slot index plus one per bucket, 0 for an empty bucket; at most half full
+    private final int[] table;
+    private final int mask;
+    private int head = NONE;
+    private int tail = NONE;
+    private int size;
+
+    /**
+     * Constructor
+     *
+     * @param maxSize maximum number of entries kept; 0 keeps nothing
+     */
+    LongLruCache(int maxSize) {
+        this.maxSize = maxSize;
+        keys = new long[maxSize];
+        values = new Object[maxSize];
+        newer = new int[maxSize];
+        older = new int[maxSize];
+        int buckets = Integer.highestOneBit(Math.max(1, maxSize) * 2 - 1) << 1;
+        table = new int[buckets];
+        mask = buckets - 1;
+    }
+
+    /**
+     * Gets a value, making it the most recently used
+     *
+     * @param key the key
+     * @return the value, or null if it isn't cached
+     */
+    @SuppressWarnings("unchecked")
+    synchronized V get(long key) {
+        int slot = find(key);
+        if (slot == NONE) {
+            return null;
+        }
+        moveToHead(slot);
+        return (V) values[slot];
+    }
+
+    /**
+     * Caches a value as the most recently used, evicting the least recently used if full
+     *
+     * @param key   the key
+     * @param value the value, not null
+     */
+    synchronized void put(long key, V value) {
+        if (maxSize == 0) {
+            return;
+        }
+        int slot = find(key);
+        if (slot == NONE) {
+            if (size < maxSize) {
+                slot = size++;
+            } else {
+                slot = tail;
+                unlink(slot);
+                removeFromTable(keys[slot]);
+            }
+            keys[slot] = key;
+            addToTable(key, slot);
+        } else {
+            unlink(slot);
+        }
+        values[slot] = value;
+        linkAtHead(slot);
+    }
+
+    /**
+     * Gets the number of entries cached
+     *
+     * @return the size
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Removes every entry
+     */
+    synchronized void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(table, 0);
+        head = tail = NONE;
+        size = 0;
+    }
+
+    private int find(long key) {
+        for (int bucket = bucket(key); table[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int slot = table[bucket] - 1;
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    private void addToTable(long key, int slot) {
+        int bucket = bucket(key);
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = slot + 1;
+    }
+
+    /**
+     * Removes a key from the table, shifting later entries of its probe run back into the gap
+     */
+    private void removeFromTable(long key) {
+        int gap = bucket(key);
+        while (keys[table[gap] - 1] != key) {
+            gap = (gap + 1) & mask;
+        }
+        for (int bucket = (gap + 1) & mask; table[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int home = bucket(keys[table[bucket] - 1]);
+            // Move the entry back unless its home lies cyclically after the gap, up to where it is
+            if (((bucket - home) & mask) >= ((bucket - gap) & mask)) {
+                table[gap] = table[bucket];
+                gap = bucket;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private int bucket(long key) {
+        // Spread the bits, since IDs are often sequential
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void moveToHead(int slot) {
+        if (slot != head) {
+            unlink(slot);
+            linkAtHead(slot);
+        }
+    }
+
+    private void linkAtHead(int slot) {
+        newer[slot] = NONE;
+        older[slot] = head;
+        if (head != NONE) {
+            newer[head] = slot;
+        }
+        head = slot;
+        if (tail == NONE) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        if (newer[slot] != NONE) {
+            older[newer[slot]] = older[slot];
+        } else {
+            head = older[slot];
+        }
+        if (older[slot] != NONE) {
+            newer[older[slot]] = newer[slot];
+        } else {
+            tail = newer[slot];
+        }
+    }
+}
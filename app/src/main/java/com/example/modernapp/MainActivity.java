@@ -1,26 +1,38 @@
 package com.example.modernapp;
 
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewTreeObserver;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity implements FeatureAdapter.OnFeatureClickListener {
+    private static final String TAG = "MainActivity";
 
     private RecyclerView featuresRecyclerView;
     private List<Feature> features;
+    private final SearchIndex searchIndex = new SearchIndex();
+    private FeatureAdapter featureAdapter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        long createTime = SystemClock.uptimeMillis();
+        int inflationsBefore = ListViewPool.getInflationCount();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        logFirstFrame(createTime, inflationsBefore);
 
         // Set up toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -28,9 +40,33 @@ public class MainActivity extends AppCompatActivity implements FeatureAdapter.On
 
         // Set up RecyclerView
         featuresRecyclerView = findViewById(R.id.featuresRecyclerView);
+        ListViewPool.attach(featuresRecyclerView);
+        PerfMetrics.trackScrolling(featuresRecyclerView, "features");
         setupFeaturesList();
     }
 
+    /**
+     * Logs the time from onCreate to the first frame, and how many rows were inflated for it.
+     * On a warm return the rows come from the shared pool and the count is zero.
+     *
+     * @param createTime       uptime when onCreate started
+     * @param inflationsBefore the inflation count when onCreate started
+     */
+    private void logFirstFrame(long createTime, int inflationsBefore) {
+        View decorView = getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                long millis = SystemClock.uptimeMillis() - createTime;
+                int rowsInflated = ListViewPool.getInflationCount() - inflationsBefore;
+                Log.d(TAG, "First frame after " + millis + "ms, " + rowsInflated + " rows inflated");
+                PerfMetrics.recordFirstFrame(TAG, millis, rowsInflated);
+                return true;
+            }
+        });
+    }
+
     /**
      * Sets up the features list with data
      */
@@ -59,9 +95,44 @@ public class MainActivity extends AppCompatActivity implements FeatureAdapter.On
                 ProfileActivity.class
         ));
 
+        // Index titles and descriptions by position for searching
+        for (int i = 0; i < features.size(); i++) {
+            searchIndex.put(i, features.get(i).getTitle(), features.get(i).getDescription());
+        }
+
         // Set up the adapter
-        FeatureAdapter adapter = new FeatureAdapter(this, features, this);
-        featuresRecyclerView.setAdapter(adapter);
+        featureAdapter = new FeatureAdapter(this, new ArrayList<>(features), this);
+        // The welcome header scrolls with the features as the first row of the same list.
+        // View types pass through unchanged so rows keep matching the shared pool.
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setIsolateViewTypes(false)
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
+        featuresRecyclerView.setAdapter(new ConcatAdapter(config,
+                new HeaderAdapter(this, ListViewPool.VIEW_TYPE_WELCOME_HEADER), featureAdapter));
+
+        // Create the rows before the first layout, unless a previous visit left them in the pool
+        ListViewPool.prewarm(featuresRecyclerView, featureAdapter, ListViewPool.VIEW_TYPE_FEATURE, features.size());
+    }
+
+    /**
+     * Shows only the features matching a search query
+     *
+     * @param query the search query; an empty query shows every feature
+     */
+    private void filterFeatures(String query) {
+        int[] positions = searchIndex.search(query);
+        List<Feature> visibleFeatures = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            visibleFeatures.add(features.get(position));
+        }
+        featureAdapter.submitList(visibleFeatures);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        PerfMetrics.writeReport(this);
     }
 
     @Override
@@ -73,6 +144,24 @@ public class MainActivity extends AppCompatActivity implements FeatureAdapter.On
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_main, menu);
+
+        // Filter the list as the user types
+        SearchView searchView = (SearchView) menu.findItem(R.id.action_search).getActionView();
+        searchView.setQueryHint(getString(R.string.search_hint));
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                filterFeatures(query);
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                filterFeatures(newText);
+                return true;
+            }
+        });
         return true;
     }
 
@@ -0,0 +1,33 @@
+package com.example.modernapp;
+
+import android.app.Application;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Application class performing process-wide initialization
+ */
+public class ModernApplication extends Application {
+    // One row for each feature on the main screen
+    private static final int FEATURE_ROWS_AHEAD = 3;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        PerfMetrics.markProcessStart();
+
+        // Load preferences off the main thread before the first activity needs them
+        DataManager.prewarm(this);
+
+        // Build the main screen's rows in the background while the activity starts
+        ListViewPool.inflateAhead(this, ListViewPool.VIEW_TYPE_FEATURE, FEATURE_ROWS_AHEAD);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // Pooled rows were inflated with the old locale, night mode or screen size
+        ListViewPool.onConfigurationChanged(this);
+    }
+}
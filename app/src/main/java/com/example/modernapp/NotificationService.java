@@ -1,100 +1,742 @@
 package com.example.modernapp;
 
+import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
- * Service for handling app notifications
+ * Service for handling app notifications.
+ * Notifications are queued and posted on a background thread. Requests arriving within
+ * a short window are coalesced, and posting is rate limited: a burst is posted as a group
+ * under a summary, and what exceeds the rate limit stays queued for a later flush. The
+ * summary counts everything posted to the group since the notifications were last cancelled.
+ *
+ * Each notification has a {@link Priority}, which picks its channel and its place in
+ * the queue. High-priority notifications skip the coalescing window and are posted
+ * ahead of the others, one at a time. The queue is bounded: once full, the oldest
+ * notification of the lowest priority present is dropped to make room.
+ *
+ * Reminders that are due don't go through the queue: {@link #showReminders(List)} posts
+ * them before it returns, in slots derived from the reminder IDs.
+ *
+ * There is one instance per process, holding only the application context. The
+ * notification channels are registered on the dispatch thread before the first post.
  */
-public class NotificationService {
+public class NotificationService implements DataManager.OnPreferenceChangeListener {
+    private static final String TAG = "NotificationService";
     private static final String CHANNEL_ID = "modern_app_channel";
     private static final String CHANNEL_NAME = "Modern App Notifications";
     private static final String CHANNEL_DESC = "Notifications from Modern App";
-    
-    private static final int NOTIFICATION_ID = 1001;
-    
+    private static final String ALERTS_CHANNEL_ID = "modern_app_alerts";
+    private static final String ALERTS_CHANNEL_NAME = "Alerts";
+    private static final String ALERTS_CHANNEL_DESC = "Reminders and other time-sensitive notifications";
+    private static final String UPDATES_CHANNEL_ID = "modern_app_updates";
+    private static final String UPDATES_CHANNEL_NAME = "Updates";
+    private static final String UPDATES_CHANNEL_DESC = "Confirmations of changes you made";
+
+    private static final String GROUP_KEY = "com.example.modernapp.NOTIFICATIONS";
+
+    // Fixed slots, below the summary and the IDs handed out per notification,
+    // so each confirmation replaces the previous one
+    public static final int SETTINGS_UPDATED_ID = 1;
+    public static final int PROFILE_UPDATED_ID = 2;
+    private static final int SUMMARY_ID = 1000;
+    // Reminders take slots of their own, below every other ID, picked by the reminder ID
+    private static final int FIRST_REMINDER_ID = Integer.MIN_VALUE;
+    private static final long REMINDER_SLOTS = 1L << 30;
+    private static final int FIRST_NOTIFICATION_ID = 1001;
+    private static final int SUMMARY_MAX_LINES = 5;
+
+    public static final int DEFAULT_MAX_PER_SECOND = 4;
+    public static final long DEFAULT_COALESCE_WINDOW_MS = 250;
+    public static final int DEFAULT_MAX_QUEUED = 64;
+
+    // Posting is a binder call, so it stays off the caller's thread
+    private static final ScheduledExecutorService dispatchExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    private static volatile NotificationService instance;
+
     private final Context context;
-    private final NotificationManagerCompat notificationManager;
-    
+    private final Poster poster;
+    private final DataManager dataManager;
+    // Cached setting, updated from every change; null until first read
+    private final AtomicReference<Boolean> notificationsEnabled = new AtomicReference<>();
+
+    private final int maxPerSecond;
+    private final long coalesceWindowMs;
+    private final int maxQueued;
+    private final AtomicInteger nextId = new AtomicInteger(FIRST_NOTIFICATION_ID);
+    // Guarded by itself; one queue per priority, highest first, with one slot
+    // per notification ID in arrival order
+    private final Map<Integer, PendingNotification>[] queues;
+    private long flushDueNanos = Long.MAX_VALUE;
+    // Token bucket limiting posts, accessed only on the dispatch executor
+    private double tokens;
+    private long lastRefillNanos;
+    // Templates by destination activity, accessed only on the dispatch executor
+    private final Map<Class<?>, Template> templates = new HashMap<>();
+    // Written only on the dispatch executor
+    private volatile int channelSetupCount;
+    // What the summary shows, newest line first, accessed only on the dispatch executor
+    private int summarizedCount;
+    private final ArrayDeque<String> summaryLines = new ArrayDeque<>();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    /**
+     * Hands built notifications to the system; replaced in tests
+     */
+    interface Poster {
+
+        /**
+         * Posts a notification, replacing any shown with the same ID
+         *
+         * @param id           the notification ID
+         * @param notification the notification
+         */
+        void notify(int id, Notification notification);
+
+        /**
+         * Cancels every notification shown
+         */
+        void cancelAll();
+    }
+
+    /**
+     * Priorities of notifications, each posted to its own channel
+     */
+    public enum Priority {
+        HIGH(ALERTS_CHANNEL_ID, ALERTS_CHANNEL_NAME, ALERTS_CHANNEL_DESC,
+                NotificationManager.IMPORTANCE_HIGH, NotificationCompat.PRIORITY_HIGH),
+        DEFAULT(CHANNEL_ID, CHANNEL_NAME, CHANNEL_DESC,
+                NotificationManager.IMPORTANCE_DEFAULT, NotificationCompat.PRIORITY_DEFAULT),
+        LOW(UPDATES_CHANNEL_ID, UPDATES_CHANNEL_NAME, UPDATES_CHANNEL_DESC,
+                NotificationManager.IMPORTANCE_LOW, NotificationCompat.PRIORITY_LOW);
+
+        final String channelId;
+        final String channelName;
+        final String channelDescription;
+        // Channel importance on API 26+, and notification priority below it
+        final int importance;
+        final int compatPriority;
+
+        Priority(String channelId, String channelName, String channelDescription,
+                 int importance, int compatPriority) {
+            this.channelId = channelId;
+            this.channelName = channelName;
+            this.channelDescription = channelDescription;
+            this.importance = importance;
+            this.compatPriority = compatPriority;
+        }
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    /**
+     * A notification waiting to be posted
+     */
+    private static final class PendingNotification {
+        final int id;
+        final Priority priority;
+        final String title;
+        final String message;
+        final Class<?> destination;
+
+        PendingNotification(int id, Priority priority, String title, String message, Class<?> destination) {
+            this.id = id;
+            this.priority = priority;
+            this.title = title;
+            this.message = message;
+            this.destination = destination;
+        }
+    }
+
+    /**
+     * The parts shared by every notification opening the same activity. Building the
+     * PendingIntent is a call into the system, so it is done once per destination.
+     */
+    static final class Template {
+        final int smallIcon;
+        final PendingIntent contentIntent;
+
+        Template(int smallIcon, PendingIntent contentIntent) {
+            this.smallIcon = smallIcon;
+            this.contentIntent = contentIntent;
+        }
+
+        /**
+         * Creates a builder from the template, with the text of one notification
+         *
+         * @param context  the context
+         * @param priority the priority, which picks the channel
+         * @param title    the notification title
+         * @param message  the notification message
+         * @return the builder
+         */
+        NotificationCompat.Builder newBuilder(Context context, Priority priority, String title, String message) {
+            return new NotificationCompat.Builder(context, priority.channelId)
+                    .setSmallIcon(smallIcon)
+                    .setContentTitle(title)
+                    .setContentText(message)
+                    .setPriority(priority.compatPriority)
+                    .setContentIntent(contentIntent)
+                    .setAutoCancel(true);
+        }
+    }
+
     /**
      * Constructor
-     * 
-     * @param context application context
+     *
+     * @param context          application context
+     * @param maxPerSecond     maximum number of notifications posted per second, at least 2
+     *                         so a grouped notification and its summary fit
+     * @param coalesceWindowMs how long requests are collected before posting them together
+     * @param maxQueued        maximum number of notifications waiting to be posted
+     * @param poster           posts the built notifications
+     * @throws IllegalArgumentException if maxPerSecond is less than 2
      */
-    public NotificationService(Context context) {
+    @SuppressWarnings("unchecked")
+    NotificationService(Context context, int maxPerSecond, long coalesceWindowMs, int maxQueued, Poster poster) {
+        if (maxPerSecond < 2) {
+            throw new IllegalArgumentException("maxPerSecond must be at least 2");
+        }
         this.context = context;
-        this.notificationManager = NotificationManagerCompat.from(context);
-        createNotificationChannel();
+        this.poster = poster;
+        this.maxPerSecond = maxPerSecond;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.maxQueued = maxQueued;
+        this.queues = new Map[PRIORITIES.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new LinkedHashMap<>();
+        }
+        this.tokens = maxPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+        this.dataManager = DataManager.getInstance(context);
+        dataManager.addOnPreferenceChangeListener(DataManager.Key.NOTIFICATIONS_ENABLED, this);
+    }
+
+    /**
+     * Gets the singleton instance
+     *
+     * @param context any context; only the application context is kept
+     * @return the NotificationService instance
+     */
+    public static NotificationService getInstance(Context context) {
+        NotificationService result = instance;
+        if (result == null) {
+            result = createInstance(context);
+        }
+        return result;
     }
-    
+
     /**
-     * Creates the notification channel for Android O and above
+     * Creates the singleton instance under the class lock if no other thread has
+     *
+     * @param context any context
+     * @return the NotificationService instance
      */
-    private void createNotificationChannel() {
-        // Create the NotificationChannel, but only on API 26+ (Android O and above)
+    private static synchronized NotificationService createInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new NotificationService(appContext,
+                    DEFAULT_MAX_PER_SECOND, DEFAULT_COALESCE_WINDOW_MS, DEFAULT_MAX_QUEUED,
+                    systemPoster(appContext));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a poster handing notifications to the notification manager
+     *
+     * @param context application context
+     * @return the poster
+     */
+    private static Poster systemPoster(Context context) {
+        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
+        return new Poster() {
+            @Override
+            public void notify(int id, Notification notification) {
+                notificationManager.notify(id, notification);
+            }
+
+            @Override
+            public void cancelAll() {
+                notificationManager.cancelAll();
+            }
+        };
+    }
+
+    @Override
+    public void onPreferenceChanged(DataManager.Key key, DataManager.Snapshot snapshot) {
+        // Take the value from the change itself; re-reading it later could race with the next change
+        notificationsEnabled.set(snapshot.areNotificationsEnabled());
+    }
+
+    /**
+     * Checks if notifications are enabled, reading the setting only on first use
+     *
+     * @return true if notifications are enabled, false otherwise
+     */
+    private boolean areNotificationsEnabled() {
+        Boolean enabled = notificationsEnabled.get();
+        if (enabled == null) {
+            enabled = dataManager.areNotificationsEnabled();
+            // A change published while reading wins over the value read
+            if (!notificationsEnabled.compareAndSet(null, enabled)) {
+                enabled = notificationsEnabled.get();
+            }
+        }
+        return enabled;
+    }
+
+    /**
+     * Creates the notification channels for Android O and above, once per process.
+     * Runs on the dispatch executor, ahead of the first post.
+     */
+    private void createNotificationChannels() {
+        if (channelSetupCount > 0) {
+            return;
+        }
+        channelSetupCount++;
+        // Create the NotificationChannels, but only on API 26+ (Android O and above)
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                    CHANNEL_ID,
-                    CHANNEL_NAME,
-                    NotificationManager.IMPORTANCE_DEFAULT
-            );
-            channel.setDescription(CHANNEL_DESC);
-            
-            // Register the channel with the system
-            NotificationManager notificationManager = 
+            List<NotificationChannel> channels = new ArrayList<>();
+            for (Priority priority : PRIORITIES) {
+                NotificationChannel channel = new NotificationChannel(
+                        priority.channelId,
+                        priority.channelName,
+                        priority.importance
+                );
+                channel.setDescription(priority.channelDescription);
+                channels.add(channel);
+            }
+
+            // Register the channels with the system in a single call
+            NotificationManager notificationManager =
                     context.getSystemService(NotificationManager.class);
             if (notificationManager != null) {
-                notificationManager.createNotificationChannel(channel);
+                notificationManager.createNotificationChannels(channels);
             }
         }
     }
-    
+
     /**
-     * Shows a basic notification
-     * 
+     * Shows a basic notification in a new slot
+     *
      * @param title the notification title
      * @param message the notification message
+     * @return the ID of the notification
+     */
+    public int showNotification(String title, String message) {
+        return showNotification(Priority.DEFAULT, title, message);
+    }
+
+    /**
+     * Shows a notification with a given priority in a new slot
+     *
+     * @param priority the priority
+     * @param title    the notification title
+     * @param message  the notification message
+     * @return the ID of the notification
+     */
+    public int showNotification(Priority priority, String title, String message) {
+        int id = nextId.getAndIncrement();
+        showNotification(id, priority, title, message, MainActivity.class);
+        return id;
+    }
+
+    /**
+     * Shows a notification in a given slot, replacing whatever the slot showed before.
+     * A request still waiting to be posted for the same slot is replaced too.
+     *
+     * @param id      the notification ID
+     * @param title   the notification title
+     * @param message the notification message
+     */
+    public void showNotification(int id, String title, String message) {
+        showNotification(id, Priority.DEFAULT, title, message, MainActivity.class);
+    }
+
+    /**
+     * Shows a notification with a given priority in a given slot
+     *
+     * @param id       the notification ID
+     * @param priority the priority
+     * @param title    the notification title
+     * @param message  the notification message
+     */
+    public void showNotification(int id, Priority priority, String title, String message) {
+        showNotification(id, priority, title, message, MainActivity.class);
+    }
+
+    /**
+     * Shows a notification in a given slot, opening an activity when tapped
+     *
+     * @param id          the notification ID
+     * @param title       the notification title
+     * @param message     the notification message
+     * @param destination the activity to open
      */
-    public void showNotification(String title, String message) {
+    public void showNotification(int id, String title, String message, Class<?> destination) {
+        showNotification(id, Priority.DEFAULT, title, message, destination);
+    }
+
+    /**
+     * Shows a notification in a given slot, with a given priority, opening an activity when tapped
+     *
+     * @param id          the notification ID
+     * @param priority    the priority
+     * @param title       the notification title
+     * @param message     the notification message
+     * @param destination the activity to open
+     */
+    public void showNotification(int id, Priority priority, String title, String message, Class<?> destination) {
         // Check if notifications are enabled
-        if (!DataManager.getInstance(context).areNotificationsEnabled()) {
+        if (!areNotificationsEnabled()) {
             return;
         }
-        
-        // Create an intent that will open the app when the notification is tapped
-        Intent intent = new Intent(context, MainActivity.class);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                context, 
-                0, 
-                intent, 
-                PendingIntent.FLAG_IMMUTABLE
-        );
-        
-        // Build the notification
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
-                .setSmallIcon(R.mipmap.ic_launcher)
-                .setContentTitle(title)
-                .setContentText(message)
-                .setPriority(NotificationCompat.PRIORITY_DEFAULT)
-                .setContentIntent(pendingIntent)
-                .setAutoCancel(true);
-        
-        // Show the notification
-        notificationManager.notify(NOTIFICATION_ID, builder.build());
-    }
-    
+
+        synchronized (queues) {
+            // Remove first so a replaced slot moves to the end of its queue
+            for (Map<Integer, PendingNotification> queue : queues) {
+                queue.remove(id);
+            }
+            if (queuedCount() >= maxQueued && !evictBelow(priority)) {
+                // Everything queued outranks this one
+                droppedCount.incrementAndGet();
+                return;
+            }
+            queues[priority.ordinal()].put(id, new PendingNotification(id, priority, title, message, destination));
+            // High priority doesn't wait to be coalesced
+            scheduleFlush(priority == Priority.HIGH ? 0 : coalesceWindowMs);
+        }
+    }
+
+    /**
+     * Posts reminders that are due, returning once they were posted. They skip the queue
+     * and its rate limit: up to the limit's worth are posted on their own, and when more
+     * are due at once, the rest are collapsed into the group summary. Each reminder is
+     * posted in a slot derived from its ID, so showing it again replaces it.
+     * Waits for the dispatch thread, so it must not be called on the main thread.
+     *
+     * @param reminders the reminders
+     * @return true if the reminders were posted, or dropped because notifications are
+     * turned off; false if posting failed
+     */
+    public boolean showReminders(List<ReminderStore.Reminder> reminders) {
+        Future<?> posted = dispatchExecutor.submit(() -> postReminders(reminders));
+        try {
+            posted.get();
+            return true;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Failed to post " + reminders.size() + " reminders", e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gets the notification slot of a reminder. Reminder IDs that differ only above
+     * the low 30 bits share a slot.
+     *
+     * @param reminderId the reminder ID
+     * @return the notification ID
+     */
+    static int reminderSlot(long reminderId) {
+        return FIRST_REMINDER_ID + (int) (reminderId & (REMINDER_SLOTS - 1));
+    }
+
+    /**
+     * Posts reminders right away. Runs on the dispatch executor.
+     *
+     * @param reminders the reminders
+     */
+    private void postReminders(List<ReminderStore.Reminder> reminders) {
+        if (!areNotificationsEnabled()) {
+            droppedCount.addAndGet(reminders.size());
+            return;
+        }
+        createNotificationChannels();
+
+        List<PendingNotification> batch = new ArrayList<>(reminders.size());
+        for (ReminderStore.Reminder reminder : reminders) {
+            batch.add(new PendingNotification(reminderSlot(reminder.id), Priority.HIGH,
+                    reminder.title, reminder.message, MainActivity.class));
+        }
+        // Past the limit's worth, the summary takes a post and stands in for the rest
+        boolean collapsed = batch.size() > maxPerSecond;
+        int posts = collapsed ? maxPerSecond - 1 : batch.size();
+        for (int i = 0; i < posts; i++) {
+            post(batch.get(i), collapsed);
+        }
+        if (collapsed) {
+            postSummary(batch);
+        }
+        deliveredCount.addAndGet(batch.size());
+
+        // The queued notifications wait for the budget the reminders spent
+        refillTokens();
+        tokens = Math.max(0, tokens - posts - (collapsed ? 1 : 0));
+    }
+
+    /**
+     * Drops the oldest queued notification of the lowest priority present, to make room
+     * for one of a given priority. Must be called holding the queues' lock.
+     *
+     * @param priority the priority of the notification to make room for
+     * @return true if a notification was dropped; false if all queued ones have a higher priority
+     */
+    private boolean evictBelow(Priority priority) {
+        for (int i = queues.length - 1; i >= priority.ordinal(); i--) {
+            Iterator<PendingNotification> oldest = queues[i].values().iterator();
+            if (oldest.hasNext()) {
+                oldest.next();
+                oldest.remove();
+                droppedCount.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Schedules a flush, unless one is already due as soon. Must be called holding the queues' lock.
+     *
+     * @param delayMs how long to wait before flushing
+     */
+    private void scheduleFlush(long delayMs) {
+        long dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        if (dueNanos < flushDueNanos) {
+            flushDueNanos = dueNanos;
+            dispatchExecutor.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private int queuedCount() {
+        int count = 0;
+        for (Map<Integer, PendingNotification> queue : queues) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * Posts the queued notifications that the rate limit allows, highest priority first,
+     * and leaves the rest queued for the next flush. Runs on the dispatch executor.
+     */
+    private void flush() {
+        refillTokens();
+        List<PendingNotification> urgent = new ArrayList<>();
+        List<PendingNotification> batch = new ArrayList<>();
+        boolean grouped;
+        synchronized (queues) {
+            flushDueNanos = Long.MAX_VALUE;
+            // High priority is posted one by one, a token each
+            Iterator<PendingNotification> high = queues[Priority.HIGH.ordinal()].values().iterator();
+            while (tokens >= urgent.size() + 1 && high.hasNext()) {
+                urgent.add(high.next());
+                high.remove();
+            }
+            tokens -= urgent.size();
+            // A lone notification is posted on its own, unless a group is already showing.
+            // Otherwise the group costs a token for the summary on top of its children.
+            grouped = summarizedCount > 0 || queuedCount() > 1;
+            int budget = (int) tokens - (grouped ? 1 : 0);
+            for (int i = Priority.HIGH.ordinal() + 1; i < queues.length && batch.size() < budget; i++) {
+                Iterator<PendingNotification> queued = queues[i].values().iterator();
+                while (batch.size() < budget && queued.hasNext()) {
+                    batch.add(queued.next());
+                    queued.remove();
+                }
+            }
+            if (!batch.isEmpty()) {
+                tokens -= batch.size() + (grouped ? 1 : 0);
+            }
+            if (queuedCount() > 0) {
+                // Out of budget; try again once enough tokens for the next post are due
+                int needed = grouped && queues[Priority.HIGH.ordinal()].isEmpty() ? 2 : 1;
+                scheduleFlush(Math.max(0, (long) Math.ceil((needed - tokens) * 1000 / maxPerSecond)));
+            }
+        }
+        if (urgent.isEmpty() && batch.isEmpty()) {
+            return;
+        }
+        if (!areNotificationsEnabled()) {
+            // Turned off while they were queued
+            droppedCount.addAndGet(urgent.size() + batch.size());
+            return;
+        }
+        createNotificationChannels();
+
+        for (PendingNotification notification : urgent) {
+            post(notification, false);
+        }
+        for (PendingNotification notification : batch) {
+            post(notification, grouped);
+        }
+        if (grouped && !batch.isEmpty()) {
+            postSummary(batch);
+        }
+        deliveredCount.addAndGet(urgent.size() + batch.size());
+    }
+
+    private void refillTokens() {
+        long now = System.nanoTime();
+        tokens = Math.min(maxPerSecond, tokens + (now - lastRefillNanos) * maxPerSecond / 1e9);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * Posts one notification
+     *
+     * @param notification the notification
+     * @param grouped      whether it belongs to the group shown under the summary
+     */
+    private void post(PendingNotification notification, boolean grouped) {
+        NotificationCompat.Builder builder = template(notification.destination)
+                .newBuilder(context, notification.priority, notification.title, notification.message);
+        if (grouped) {
+            builder.setGroup(GROUP_KEY);
+        }
+        poster.notify(notification.id, builder.build());
+    }
+
+    /**
+     * Updates the summary with the notifications just added to the group. It keeps
+     * counting the earlier ones, and lists the latest few.
+     *
+     * @param batch the notifications just posted to the group, highest priority first
+     */
+    private void postSummary(List<PendingNotification> batch) {
+        summarizedCount += batch.size();
+        for (int i = Math.min(batch.size(), SUMMARY_MAX_LINES) - 1; i >= 0; i--) {
+            summaryLines.addFirst(batch.get(i).title);
+        }
+        while (summaryLines.size() > SUMMARY_MAX_LINES) {
+            summaryLines.removeLast();
+        }
+
+        String title = context.getResources().getQuantityString(
+                R.plurals.notification_summary_title, summarizedCount, summarizedCount);
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        for (String line : summaryLines) {
+            style.addLine(line);
+        }
+        style.setSummaryText(title);
+
+        NotificationCompat.Builder builder = template(MainActivity.class)
+                .newBuilder(context, batch.get(0).priority, title, batch.get(0).title)
+                .setStyle(style)
+                .setGroup(GROUP_KEY)
+                .setGroupSummary(true);
+        poster.notify(SUMMARY_ID, builder.build());
+    }
+
+    /**
+     * Gets the template of notifications opening an activity, creating it on first use.
+     * Called on the dispatch executor.
+     *
+     * @param destination the activity to open
+     * @return the template
+     */
+    Template template(Class<?> destination) {
+        Template template = templates.get(destination);
+        if (template == null) {
+            // Open the activity in a fresh task when the notification is tapped
+            Intent intent = new Intent(context, destination);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            PendingIntent pendingIntent = PendingIntent.getActivity(
+                    context,
+                    0,
+                    intent,
+                    PendingIntent.FLAG_IMMUTABLE
+            );
+            template = new Template(R.mipmap.ic_launcher, pendingIntent);
+            templates.put(destination, template);
+        }
+        return template;
+    }
+
+    /**
+     * Gets the number of notifications waiting to be posted
+     *
+     * @return the queued count
+     */
+    public int getQueuedCount() {
+        synchronized (queues) {
+            return queuedCount();
+        }
+    }
+
+    /**
+     * Gets the number of notifications dropped because the queue was full,
+     * or because notifications were turned off while they were queued
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Gets the number of notifications posted, on their own or in the group under the summary
+     *
+     * @return the delivered count
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    /**
+     * Gets the number of times the notification channels were set up, at most once per instance
+     *
+     * @return the channel setup count
+     */
+    int getChannelSetupCount() {
+        return channelSetupCount;
+    }
+
     /**
      * Cancels all notifications
      */
     public void cancelAllNotifications() {
-        notificationManager.cancelAll();
+        synchronized (queues) {
+            for (Map<Integer, PendingNotification> queue : queues) {
+                queue.clear();
+            }
+        }
+        dispatchExecutor.execute(() -> {
+            // The group is gone, so the next one starts a fresh summary
+            summarizedCount = 0;
+            summaryLines.clear();
+            poster.cancelAll();
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package com.example.modernapp;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Read-only item list that loads items from an {@link ItemSource} one page at a time.
+ * Only a bounded window of recently used pages is kept in memory, and pages
+ * ahead of the current position in the scroll direction are loaded in the background.
+ *
+ * Reads never touch the source on the calling thread: an item whose page isn't in
+ * memory yet reads as a placeholder, with an empty title and description and no icon,
+ * and its page is loaded in the background. The listener set with
+ * {@link #setOnPageLoadedListener(OnPageLoadedListener)} is told once it is in memory,
+ * so the placeholder rows can be bound again.
+ */
+public class PagedItemList implements ItemColumns {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_PAGES = 8;
+    public static final int DEFAULT_PREFETCH_PAGES = 2;
+    // Placeholder IDs count up from here, far from both stored and synthetic item IDs
+    private static final long FIRST_PLACEHOLDER_ID = Long.MIN_VALUE;
+
+    private final ItemSource source;
+    private final Executor executor;
+    private final Executor callbackExecutor;
+    private final int pageSize;
+    private final int prefetchPages;
+    private final int size;
+    // Guarded by this; access-ordered so the least recently used page is evicted first
+    private final Map<Integer, ItemStore> pages;
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private int lastPageIndex = -1;
+    private volatile OnPageLoadedListener pageLoadedListener;
+
+    /**
+     * Listener for pages arriving in memory
+     */
+    public interface OnPageLoadedListener {
+        /**
+         * Called on the callback executor once a page has been loaded
+         *
+         * @param positionStart index of the first item of the page
+         * @param itemCount     number of items in the page
+         */
+        void onPageLoaded(int positionStart, int itemCount);
+    }
+
+    /**
+     * Constructs a paged list with the default page size and window
+     *
+     * @param source           the store to load items from
+     * @param size             the number of items in the store, counted off the main thread
+     * @param executor         executor on which pages are loaded
+     * @param callbackExecutor executor on which the page listener is called, such as the main thread's
+     */
+    public PagedItemList(ItemSource source, int size, Executor executor, Executor callbackExecutor) {
+        this(source, size, executor, callbackExecutor, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, DEFAULT_PREFETCH_PAGES);
+    }
+
+    /**
+     * Constructs a paged list
+     *
+     * @param source           the store to load items from
+     * @param size             the number of items in the store, counted off the main thread
+     * @param executor         executor on which pages are loaded
+     * @param callbackExecutor executor on which the page listener is called, such as the main thread's
+     * @param pageSize         number of items per page
+     * @param maxPages         maximum number of pages kept in memory
+     * @param prefetchPages    number of pages to load ahead of the current one
+     */
+    public PagedItemList(ItemSource source, int size, Executor executor, Executor callbackExecutor,
+                         int pageSize, int maxPages, int prefetchPages) {
+        if (maxPages <= prefetchPages) {
+            throw new IllegalArgumentException("maxPages must leave room for the current page");
+        }
+        this.source = source;
+        this.size = size;
+        this.executor = executor;
+        this.callbackExecutor = callbackExecutor;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+        this.pages = new LinkedHashMap<Integer, ItemStore>(maxPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ItemStore> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Sets the listener told when a page has been loaded, replacing any previous one
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setOnPageLoadedListener(OnPageLoadedListener listener) {
+        this.pageLoadedListener = listener;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an item's ID. Until its page is loaded, the item has a placeholder ID
+     * that no stored or unstored item has.
+     *
+     * @param index the item index
+     * @return the item's ID
+     */
+    @Override
+    public long getId(int index) {
+        ItemStore page = pageFor(index);
+        return page != null ? page.getId(index % pageSize) : FIRST_PLACEHOLDER_ID + index;
+    }
+
+    @Override
+    public int getIconResource(int index) {
+        ItemStore page = pageFor(index);
+        return page != null ? page.getIconResource(index % pageSize) : 0;
+    }
+
+    @Override
+    public String getTitle(int index) {
+        ItemStore page = pageFor(index);
+        return page != null ? page.getTitle(index % pageSize) : "";
+    }
+
+    @Override
+    public String getDescription(int index) {
+        ItemStore page = pageFor(index);
+        return page != null ? page.getDescription(index % pageSize) : "";
+    }
+
+    /**
+     * Gets the page holding an item if it is in memory, starting to load it if not,
+     * and prefetches ahead when moving to a new page
+     *
+     * @param index the item index
+     * @return the page holding the item, or null until it has been loaded
+     */
+    private ItemStore pageFor(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        int pageIndex = index / pageSize;
+        ItemStore page;
+        synchronized (this) {
+            page = pages.get(pageIndex);
+        }
+        if (page == null) {
+            requestPage(pageIndex);
+        }
+        if (pageIndex != lastPageIndex) {
+            prefetch(pageIndex, pageIndex > lastPageIndex ? 1 : -1);
+            lastPageIndex = pageIndex;
+        }
+        if (page == null) {
+            // An executor running tasks in place has loaded it by now
+            synchronized (this) {
+                page = pages.get(pageIndex);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Starts loading the pages following a page in the scroll direction
+     *
+     * @param pageIndex the page currently being read
+     * @param direction 1 when scrolling forward, -1 when scrolling back
+     */
+    private void prefetch(int pageIndex, int direction) {
+        for (int i = 1; i <= prefetchPages; i++) {
+            int target = pageIndex + i * direction;
+            if (target < 0 || target * pageSize >= size) {
+                return;
+            }
+            requestPage(target);
+        }
+    }
+
+    /**
+     * Starts loading a page in the background, unless it is in memory or already loading
+     *
+     * @param target the page to load
+     */
+    private void requestPage(int target) {
+        synchronized (this) {
+            // containsKey doesn't count as an access, so it leaves the LRU order alone
+            if (pages.containsKey(target) || !loadingPages.add(target)) {
+                return;
+            }
+        }
+        executor.execute(() -> {
+            ItemStore page = null;
+            try {
+                page = source.load(target * pageSize, pageSize);
+            } finally {
+                // On failure the page reads as placeholders, and is loaded again when next read
+                synchronized (PagedItemList.this) {
+                    loadingPages.remove(target);
+                    if (page != null) {
+                        pages.put(target, page);
+                    }
+                }
+            }
+            int positionStart = target * pageSize;
+            int itemCount = Math.min(pageSize, size - positionStart);
+            callbackExecutor.execute(() -> {
+                OnPageLoadedListener listener = pageLoadedListener;
+                if (listener != null) {
+                    listener.onPageLoaded(positionStart, itemCount);
+                }
+            });
+        });
+    }
+}
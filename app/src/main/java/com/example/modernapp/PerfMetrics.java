@@ -0,0 +1,329 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Debug;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.Display;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Performance metrics for the list screens, collected in debug builds only:
+ * cold start and first-frame times, per-row bind and inflation times, and frame times,
+ * jank and allocations while lists scroll.
+ *
+ * The metrics are written as JSON with a fixed layout to files/perf/metrics.json, so
+ * reports from two builds can be diffed. To fetch the report after exercising the app:
+ * adb shell run-as com.example.modernapp cat files/perf/metrics.json
+ *
+ * All recording methods must be called on the main thread.
+ */
+public class PerfMetrics {
+    private static final String TAG = "PerfMetrics";
+    public static final boolean ENABLED = BuildConfig.DEBUG;
+
+    private static final String REPORT_DIR = "perf";
+    private static final String REPORT_FILE = "metrics.json";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Executor reportExecutor = Executors.newSingleThreadExecutor();
+
+    private static long processStartUptime = -1;
+    private static long coldStartMillis = -1;
+    private static final Map<String, long[]> firstFrames = new LinkedHashMap<>();
+    private static final Histogram bindMicros = new Histogram(10, 500);
+    private static final Histogram inflateMicros = new Histogram(50, 400);
+    private static final Map<String, ScrollStats> scrollStats = new LinkedHashMap<>();
+
+    /**
+     * Fixed-bucket histogram, so recording a value never allocates
+     */
+    static final class Histogram {
+        private final int bucketWidth;
+        private final int[] buckets;
+        private int count;
+        private long total;
+        private long max;
+
+        /**
+         * Constructor
+         *
+         * @param bucketWidth width of each bucket; larger values fall into the last bucket
+         * @param bucketCount number of buckets
+         */
+        Histogram(int bucketWidth, int bucketCount) {
+            this.bucketWidth = bucketWidth;
+            this.buckets = new int[bucketCount];
+        }
+
+        void add(long value) {
+            buckets[(int) Math.min(value / bucketWidth, buckets.length - 1)]++;
+            count++;
+            total += value;
+            max = Math.max(max, value);
+        }
+
+        /**
+         * Gets a percentile, rounded up to the end of its bucket
+         *
+         * @param percent the percentile, from 0 to 100
+         * @return the value below which that share of values fall
+         */
+        long percentile(double percent) {
+            long rank = (long) Math.ceil(count * percent / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    // The last bucket is open-ended, so only the maximum bounds it
+                    return i == buckets.length - 1 ? max : Math.min((long) (i + 1) * bucketWidth, max);
+                }
+            }
+            return max;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("count", count);
+            json.put("mean", count == 0 ? 0 : total / count);
+            json.put("p50", percentile(50));
+            json.put("p90", percentile(90));
+            json.put("p99", percentile(99));
+            json.put("max", max);
+            return json;
+        }
+    }
+
+    /**
+     * Frame times and allocations of one list while it scrolls
+     */
+    private static final class ScrollStats implements Choreographer.FrameCallback {
+        final Histogram frameMicros = new Histogram(500, 200);
+        int jankyFrames;
+        long allocations;
+        boolean running;
+        long frameBudgetNanos;
+        long lastFrameNanos;
+        int allocationsAtStart;
+
+        @SuppressWarnings("deprecation")
+        void start(RecyclerView recyclerView) {
+            if (running) {
+                return;
+            }
+            running = true;
+            lastFrameNanos = 0;
+            Display display = recyclerView.getDisplay();
+            float refreshRate = display != null ? display.getRefreshRate() : 60f;
+            frameBudgetNanos = (long) (1_000_000_000L / refreshRate);
+            Debug.startAllocCounting();
+            allocationsAtStart = Debug.getThreadAllocCount();
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @SuppressWarnings("deprecation")
+        void stop() {
+            if (!running) {
+                return;
+            }
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+            allocations += Debug.getThreadAllocCount() - allocationsAtStart;
+            Debug.stopAllocCounting();
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!running) {
+                return;
+            }
+            if (lastFrameNanos > 0) {
+                long duration = frameTimeNanos - lastFrameNanos;
+                frameMicros.add(duration / 1000);
+                // A frame that took more than one and a half vsyncs missed at least one
+                if (duration > frameBudgetNanos * 3 / 2) {
+                    jankyFrames++;
+                }
+            }
+            lastFrameNanos = frameTimeNanos;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("frames", frameMicros.count);
+            json.put("jankyFrames", jankyFrames);
+            json.put("jankPercent", frameMicros.count == 0 ? 0 : 100.0 * jankyFrames / frameMicros.count);
+            json.put("frameMicros", frameMicros.toJson());
+            json.put("allocations", allocations);
+            json.put("allocationsPerFrame", frameMicros.count == 0 ? 0 : allocations / frameMicros.count);
+            return json;
+        }
+    }
+
+    /**
+     * Records when the process started, for measuring cold start
+     */
+    public static void markProcessStart() {
+        if (!ENABLED) {
+            return;
+        }
+        processStartUptime = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                ? Process.getStartUptimeMillis() : SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Records a screen's first frame. The first one in the process also ends the cold start.
+     *
+     * @param screen       name of the screen
+     * @param millis       time from the screen's creation to its first frame
+     * @param rowsInflated number of list rows inflated on the main thread for that frame
+     */
+    public static void recordFirstFrame(String screen, long millis, int rowsInflated) {
+        if (!ENABLED) {
+            return;
+        }
+        if (coldStartMillis < 0 && processStartUptime >= 0) {
+            coldStartMillis = SystemClock.uptimeMillis() - processStartUptime;
+        }
+        firstFrames.put(screen, new long[]{millis, rowsInflated});
+    }
+
+    /**
+     * Starts timing an operation
+     *
+     * @return the start time to pass to a record method, or 0 when metrics are disabled
+     */
+    public static long startTiming() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time taken to bind a row
+     *
+     * @param startNanos the value returned by {@link #startTiming()}
+     */
+    public static void recordBind(long startNanos) {
+        if (ENABLED) {
+            bindMicros.add((System.nanoTime() - startNanos) / 1000);
+        }
+    }
+
+    /**
+     * Records the time taken to inflate a row on the main thread
+     *
+     * @param startNanos the value returned by {@link #startTiming()}
+     */
+    public static void recordInflate(long startNanos) {
+        if (ENABLED) {
+            inflateMicros.add((System.nanoTime() - startNanos) / 1000);
+        }
+    }
+
+    /**
+     * Records frame times and allocations whenever a list is scrolling
+     *
+     * @param recyclerView the list
+     * @param name         name the list is reported under
+     */
+    public static void trackScrolling(RecyclerView recyclerView, String name) {
+        if (!ENABLED) {
+            return;
+        }
+        ScrollStats stats = scrollStats.get(name);
+        if (stats == null) {
+            stats = new ScrollStats();
+            scrollStats.put(name, stats);
+        }
+        ScrollStats listStats = stats;
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    listStats.stop();
+                } else {
+                    listStats.start(recyclerView);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes everything recorded so far to the report file in the background
+     *
+     * @param context any context
+     */
+    public static void writeReport(Context context) {
+        if (!ENABLED) {
+            return;
+        }
+        String report;
+        try {
+            report = toJson().toString(2);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to build report", e);
+            return;
+        }
+        File dir = new File(context.getFilesDir(), REPORT_DIR);
+        reportExecutor.execute(() -> {
+            File file = new File(dir, REPORT_FILE);
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                Log.e(TAG, "Failed to create " + dir);
+                return;
+            }
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(report.getBytes(UTF_8));
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to write " + file, e);
+            }
+        });
+    }
+
+    private static JSONObject toJson() throws JSONException {
+        JSONObject build = new JSONObject();
+        build.put("versionName", BuildConfig.VERSION_NAME);
+        build.put("versionCode", BuildConfig.VERSION_CODE);
+        build.put("sdk", Build.VERSION.SDK_INT);
+        build.put("device", Build.MODEL);
+
+        JSONObject screens = new JSONObject();
+        for (Map.Entry<String, long[]> entry : firstFrames.entrySet()) {
+            JSONObject screen = new JSONObject();
+            screen.put("firstFrameMillis", entry.getValue()[0]);
+            screen.put("rowsInflated", entry.getValue()[1]);
+            screens.put(entry.getKey(), screen);
+        }
+        JSONObject startup = new JSONObject();
+        startup.put("coldStartMillis", coldStartMillis);
+        startup.put("screens", screens);
+
+        JSONObject scrolling = new JSONObject();
+        for (Map.Entry<String, ScrollStats> entry : scrollStats.entrySet()) {
+            scrolling.put(entry.getKey(), entry.getValue().toJson());
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("build", build);
+        json.put("startup", startup);
+        json.put("bindMicros", bindMicros.toJson());
+        json.put("inflateMicros", inflateMicros.toJson());
+        json.put("scrolling", scrolling);
+        return json;
+    }
+}
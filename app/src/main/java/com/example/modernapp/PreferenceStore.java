@@ -0,0 +1,24 @@
+package com.example.modernapp;
+
+import java.util.Map;
+
+/**
+ * Storage backend for the preferences held by {@link DataManager}
+ */
+public interface PreferenceStore {
+
+    /**
+     * Reads every stored value
+     *
+     * @return a map from key to value, where values are Strings or Booleans
+     */
+    Map<String, ?> load();
+
+    /**
+     * Persists a complete set of values, replacing whatever was stored before.
+     * Implementations block until the values are durable.
+     *
+     * @param values a map from key to value, where values are Strings or Booleans
+     */
+    void write(Map<String, ?> values);
+}
@@ -31,7 +31,7 @@ public class ProfileActivity extends AppCompatActivity {
 
         // Initialize data manager and notification service
         dataManager = DataManager.getInstance(this);
-        notificationService = new NotificationService(this);
+        notificationService = NotificationService.getInstance(this);
 
         // Set up toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -49,24 +49,24 @@ public class ProfileActivity extends AppCompatActivity {
         profileEmailTextView = findViewById(R.id.profileEmailTextView);
         saveButton = findViewById(R.id.saveButton);
 
-        // Set up profile data from data manager
+        // Set up profile data from data manager without blocking the first frame
         loadProfileData();
 
-        // Set up text change listeners
-        setupTextChangeListeners();
-
         // Set up save button
         saveButton.setOnClickListener(v -> {
             // Save profile data to data manager
             String name = profileNameTextView.getText().toString();
             String email = profileEmailTextView.getText().toString();
             
-            dataManager.setUserName(name);
-            dataManager.setUserEmail(email);
+            dataManager.edit(editor -> editor
+                    .setUserName(name)
+                    .setUserEmail(email));
             
             // Show notification if notifications are enabled
             if (dataManager.areNotificationsEnabled()) {
                 notificationService.showNotification(
+                        NotificationService.PROFILE_UPDATED_ID,
+                        NotificationService.Priority.LOW,
                         "Profile Updated",
                         "Your profile has been updated successfully"
                 );
@@ -79,11 +79,18 @@ public class ProfileActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads profile data from DataManager
+     * Loads profile data from DataManager and binds it once available
      */
     private void loadProfileData() {
-        profileNameTextView.setText(dataManager.getUserName());
-        profileEmailTextView.setText(dataManager.getUserEmail());
+        saveButton.setEnabled(false);
+        dataManager.load(snapshot -> {
+            profileNameTextView.setText(snapshot.getUserName());
+            profileEmailTextView.setText(snapshot.getUserEmail());
+
+            // Set up text change listeners after binding, so the loaded values don't count as changes
+            setupTextChangeListeners();
+            saveButton.setEnabled(true);
+        });
     }
     
     /**
@@ -0,0 +1,252 @@
+package com.example.modernapp;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Append-only log of length-prefixed binary records, the storage under
+ * {@link BinaryLogStore} and {@link ReminderStore}. Each record is [int length][payload];
+ * what a payload means is up to the store, which replays the records in order on load.
+ *
+ * Appends are synced before they count, a record torn by a crash or found corrupt is
+ * cut off together with everything after it, and the log is rewritten through a
+ * temporary file, so it never holds a partly written rewrite. Not thread-safe.
+ */
+final class RecordLog {
+    private static final String TAG = "RecordLog";
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Compact once the log holds this many records per live entry
+    private static final int COMPACT_RATIO = 4;
+    private static final long MIN_COMPACT_SIZE = 4096;
+
+    private final File file;
+    private long size;
+    private int recordCount;
+
+    /**
+     * Reads the payload of one record
+     */
+    interface RecordReader {
+
+        /**
+         * Applies a record
+         *
+         * @param payload the payload, ending where the record ends
+         * @throws BufferUnderflowException if the payload is malformed
+         */
+        void read(ByteBuffer payload);
+    }
+
+    /**
+     * Records encoded in memory, to be appended or rewritten together
+     */
+    static final class Records {
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+        private int count;
+
+        /**
+         * Starts a record, growing the buffer if needed
+         *
+         * @param length the payload length
+         * @return the buffer to put exactly that many payload bytes into
+         */
+        ByteBuffer add(int length) {
+            if (buffer.remaining() < 4 + length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + 4 + length));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            buffer.putInt(length);
+            count++;
+            return buffer;
+        }
+
+        int count() {
+            return count;
+        }
+
+        void clear() {
+            buffer.clear();
+            count = 0;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param file the log file
+     */
+    RecordLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Checks whether the log file has been created yet
+     *
+     * @return true if the log file exists
+     */
+    boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Replays every valid record through a memory-mapped buffer, and cuts off
+     * the first torn or corrupt record and everything after it
+     *
+     * @param reader applies each record
+     */
+    void replay(RecordReader reader) {
+        if (!file.exists()) {
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            long fileSize = channel.size();
+            if (fileSize > 0) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                readRecords(buffer, reader);
+            }
+            // Drop what can't be read so new records stay readable
+            if (size < fileSize) {
+                channel.truncate(size);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to read " + file, e);
+        }
+    }
+
+    private void readRecords(ByteBuffer buffer, RecordReader reader) {
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            // Read through a view ending at the record, so a corrupt inner length can't read past it
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            try {
+                reader.read(payload);
+            } catch (BufferUnderflowException e) {
+                Log.w(TAG, "Corrupt record at offset " + start + " in " + file);
+                break;
+            }
+            buffer.position(start + 4 + length);
+            size = buffer.position();
+            recordCount++;
+        }
+    }
+
+    /**
+     * Appends records, blocking until they are durable.
+     * On failure the log is cut back to its previous length.
+     *
+     * @param records the records
+     * @return true if the records were appended
+     */
+    boolean append(Records records) {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(records.buffer.array(), 0, records.buffer.position());
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to append to " + file, e);
+            truncateTo(size);
+            return false;
+        }
+        size += records.buffer.position();
+        recordCount += records.count;
+        return true;
+    }
+
+    /**
+     * Replaces the log with the given records. They are written to a temporary file
+     * and renamed into place, so after a crash the log is either the old one or the new one.
+     *
+     * @param records the records
+     * @return true if the new log is in place
+     */
+    boolean rewrite(Records records) {
+        File rewritten = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(rewritten)) {
+            out.write(records.buffer.array(), 0, records.buffer.position());
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to rewrite " + file, e);
+            return false;
+        }
+        if (!rewritten.renameTo(file)) {
+            Log.e(TAG, "Failed to replace " + file + " with rewritten log");
+            return false;
+        }
+        size = records.buffer.position();
+        recordCount = records.count;
+        return true;
+    }
+
+    /**
+     * Checks whether the log has grown well past its live contents
+     *
+     * @param liveCount the number of live entries, each needing one record
+     * @return true if rewriting the log would shrink it substantially
+     */
+    boolean needsCompaction(int liveCount) {
+        return size >= MIN_COMPACT_SIZE && recordCount >= COMPACT_RATIO * Math.max(1, liveCount);
+    }
+
+    /**
+     * Gets the encoded size of a string
+     *
+     * @param bytes the UTF-8 bytes of the string
+     * @return the number of bytes {@link #putString} writes
+     */
+    static int sizeOf(byte[] bytes) {
+        return 4 + bytes.length;
+    }
+
+    /**
+     * Writes a string as [int length][bytes]
+     *
+     * @param buffer the buffer to write to
+     * @param bytes  the UTF-8 bytes of the string
+     */
+    static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString}
+     *
+     * @param buffer the payload being read
+     * @return the string
+     * @throws BufferUnderflowException if the length runs past the payload
+     */
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private void truncateTo(long length) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to truncate " + file, e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.modernapp;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Receives the reminder alarm, and the broadcasts after a reboot or an app update,
+ * which clear any alarm that was set
+ */
+public class ReminderReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        // Keep the process alive until the due reminders were posted
+        PendingResult result = goAsync();
+        ReminderScheduler.getInstance(context).onAlarm(result::finish);
+    }
+}
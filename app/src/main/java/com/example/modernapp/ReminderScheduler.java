@@ -0,0 +1,305 @@
+package com.example.modernapp;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Schedules notifications for later, built on {@link NotificationService}.
+ *
+ * Reminders are kept in a {@link ReminderStore}, so they survive process death and
+ * reboots, and their deadlines in a {@link TimerWheel}, so scheduling and cancelling
+ * stay cheap with many thousands of them. A single alarm is kept set for the earliest
+ * deadline, rounded up to the end of its batching window: reminders due within one
+ * window are shown on the same wake-up, and the device wakes at most once per window.
+ *
+ * Reminders are delivered at least once: a reminder is removed from the store only
+ * after it was posted, so one shown just before the process dies may be shown again,
+ * in the same slot, when the store is next loaded. Reminders that couldn't be posted
+ * are retried a window later. All work runs on a single background executor; the
+ * public methods can be called from any thread.
+ */
+public class ReminderScheduler {
+    public static final String ACTION_FIRE = "com.example.modernapp.action.FIRE_REMINDERS";
+    private static final String STORE_FILE_NAME = "reminders.bin";
+
+    public static final long DEFAULT_TICK_MS = 1000;
+    public static final long DEFAULT_ALARM_WINDOW_MS = 60_000;
+
+    private static volatile ReminderScheduler instance;
+
+    private final ReminderStore store;
+    private final Clock clock;
+    private final Platform platform;
+    private final Executor executor;
+    private final long alarmWindowMs;
+    // Accessed only on the executor
+    private final TimerWheel wheel;
+    private boolean flushScheduled;
+    private long alarmAtMillis = -1;
+
+    /**
+     * The parts of scheduling that depend on the system, replaceable in tests
+     */
+    public interface Platform {
+
+        /**
+         * Sets the wake-up alarm, replacing any set before
+         *
+         * @param atMillis     the earliest time to deliver the alarm
+         * @param windowMillis how much later the alarm may be delivered
+         */
+        void setAlarm(long atMillis, long windowMillis);
+
+        /**
+         * Cancels the wake-up alarm
+         */
+        void cancelAlarm();
+
+        /**
+         * Shows reminders that are due, returning once they were posted
+         *
+         * @param reminders the reminders, never empty
+         * @return true if the reminders were posted; false to keep them and try again later
+         */
+        boolean deliver(List<ReminderStore.Reminder> reminders);
+    }
+
+    /**
+     * Constructor. Starts loading the stored reminders on the executor.
+     *
+     * @param store         the reminder store
+     * @param clock         the clock deadlines are measured against
+     * @param platform      sets alarms and shows reminders
+     * @param executor      a single-threaded executor, on which all work runs
+     * @param tickMs        resolution of deadlines
+     * @param alarmWindowMs length of the windows alarms are batched into
+     */
+    ReminderScheduler(ReminderStore store, Clock clock, Platform platform, Executor executor,
+                      long tickMs, long alarmWindowMs) {
+        this.store = store;
+        this.clock = clock;
+        this.platform = platform;
+        this.executor = executor;
+        this.alarmWindowMs = alarmWindowMs;
+        this.wheel = new TimerWheel(tickMs, clock.currentTimeMillis());
+        executor.execute(this::restore);
+    }
+
+    /**
+     * Gets the singleton instance
+     *
+     * @param context any context; only the application context is kept
+     * @return the ReminderScheduler instance
+     */
+    public static ReminderScheduler getInstance(Context context) {
+        ReminderScheduler result = instance;
+        if (result == null) {
+            result = createInstance(context);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the singleton instance under the class lock if no other thread has
+     *
+     * @param context any context
+     * @return the ReminderScheduler instance
+     */
+    private static synchronized ReminderScheduler createInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new ReminderScheduler(
+                    new ReminderStore(new File(appContext.getFilesDir(), STORE_FILE_NAME)),
+                    Clock.SYSTEM,
+                    new AlarmPlatform(appContext),
+                    Executors.newSingleThreadExecutor(),
+                    DEFAULT_TICK_MS,
+                    DEFAULT_ALARM_WINDOW_MS);
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules a reminder, replacing any with the same ID.
+     * A reminder whose time has already passed is shown right away.
+     *
+     * @param id       the reminder ID, chosen by the caller
+     * @param title    the notification title
+     * @param message  the notification message
+     * @param atMillis when to show the notification, in milliseconds since the epoch
+     */
+    public void schedule(long id, String title, String message, long atMillis) {
+        ReminderStore.Reminder reminder = new ReminderStore.Reminder(id, atMillis, title, message);
+        executor.execute(() -> {
+            store.put(reminder);
+            if (atMillis <= clock.currentTimeMillis()) {
+                wheel.cancel(id);
+                deliverAll(Collections.singletonList(reminder));
+            } else {
+                wheel.schedule(id, atMillis);
+            }
+            onChanged();
+        });
+    }
+
+    /**
+     * Cancels a reminder that hasn't been shown yet
+     *
+     * @param id the reminder ID
+     */
+    public void cancel(long id) {
+        executor.execute(() -> cancelNow(id));
+    }
+
+    /**
+     * Shows the reminders that are due and sets the alarm for the next ones.
+     * Called when the alarm goes off, and after a reboot or update cleared it.
+     *
+     * @param onDone run on the executor once done
+     */
+    public void onAlarm(Runnable onDone) {
+        executor.execute(() -> {
+            try {
+                // The alarm that fired is spent; anything set now is new
+                alarmAtMillis = -1;
+                List<ReminderStore.Reminder> due = new ArrayList<>();
+                wheel.advance(clock.currentTimeMillis(), id -> {
+                    ReminderStore.Reminder reminder = store.get(id);
+                    if (reminder != null) {
+                        due.add(reminder);
+                    }
+                });
+                deliverAll(due);
+                onChanged();
+            } finally {
+                onDone.run();
+            }
+        });
+    }
+
+    /**
+     * Loads the stored reminders into the wheel, showing any missed while the process was dead
+     */
+    private void restore() {
+        long now = clock.currentTimeMillis();
+        List<ReminderStore.Reminder> due = new ArrayList<>();
+        for (ReminderStore.Reminder reminder : store.load()) {
+            if (reminder.atMillis <= now) {
+                due.add(reminder);
+            } else {
+                wheel.schedule(reminder.id, reminder.atMillis);
+            }
+        }
+        deliverAll(due);
+        onChanged();
+    }
+
+    private void cancelNow(long id) {
+        if (wheel.cancel(id)) {
+            store.remove(id);
+            onChanged();
+        }
+    }
+
+    /**
+     * Shows stored reminders that are due, and removes them from the store once posted.
+     * If posting failed they stay stored, and are due again a window later.
+     *
+     * @param due the reminders that are due
+     */
+    private void deliverAll(List<ReminderStore.Reminder> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        if (platform.deliver(due)) {
+            for (ReminderStore.Reminder reminder : due) {
+                store.remove(reminder.id);
+            }
+        } else {
+            long retryAtMillis = clock.currentTimeMillis() + alarmWindowMs;
+            for (ReminderStore.Reminder reminder : due) {
+                wheel.schedule(reminder.id, retryAtMillis);
+            }
+        }
+    }
+
+    /**
+     * Moves the alarm to the next deadline and queues a flush of the store behind
+     * any other changes already queued, so a burst of changes is written once
+     */
+    private void onChanged() {
+        updateAlarm();
+        if (!flushScheduled) {
+            flushScheduled = true;
+            executor.execute(() -> {
+                flushScheduled = false;
+                store.flush();
+            });
+        }
+    }
+
+    private void updateAlarm() {
+        long deadline = wheel.nextDeadline();
+        if (deadline == Long.MAX_VALUE) {
+            if (alarmAtMillis >= 0) {
+                platform.cancelAlarm();
+                alarmAtMillis = -1;
+            }
+            return;
+        }
+        // Round up to the end of the window, so every deadline in it shares the wake-up
+        long atMillis = (deadline + alarmWindowMs - 1) / alarmWindowMs * alarmWindowMs;
+        if (atMillis != alarmAtMillis) {
+            platform.setAlarm(atMillis, alarmWindowMs);
+            alarmAtMillis = atMillis;
+        }
+    }
+
+    /**
+     * Sets alarms through AlarmManager, delivered to {@link ReminderReceiver},
+     * and shows reminders through {@link NotificationService}
+     */
+    private static final class AlarmPlatform implements Platform {
+        private final Context context;
+        private final AlarmManager alarmManager;
+        private PendingIntent alarmIntent;
+
+        AlarmPlatform(Context context) {
+            this.context = context;
+            this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        }
+
+        @Override
+        public void setAlarm(long atMillis, long windowMillis) {
+            // A window rather than an exact time lets the system batch it with other wake-ups
+            alarmManager.setWindow(AlarmManager.RTC_WAKEUP, atMillis, windowMillis, alarmIntent());
+        }
+
+        @Override
+        public void cancelAlarm() {
+            alarmManager.cancel(alarmIntent());
+        }
+
+        @Override
+        public boolean deliver(List<ReminderStore.Reminder> reminders) {
+            return NotificationService.getInstance(context).showReminders(reminders);
+        }
+
+        private PendingIntent alarmIntent() {
+            if (alarmIntent == null) {
+                Intent intent = new Intent(context, ReminderReceiver.class).setAction(ACTION_FIRE);
+                alarmIntent = PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+            }
+            return alarmIntent;
+        }
+    }
+}
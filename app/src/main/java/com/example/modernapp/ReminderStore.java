@@ -0,0 +1,190 @@
+package com.example.modernapp;
+
+import java.io.File;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scheduled reminders persisted in an append-only {@link RecordLog}, in the same way as
+ * {@link BinaryLogStore}: adding or removing a reminder appends one record, later
+ * records override earlier ones, and the log is compacted once it holds many more
+ * records than live reminders.
+ *
+ * Changes are buffered in memory until {@link #flush()}, so a burst of changes
+ * costs a single synced write.
+ *
+ * Record layout: [int length][byte type][long id], followed for a scheduled reminder
+ * by [long atMillis][int titleLength][title bytes][int messageLength][message bytes].
+ */
+public class ReminderStore {
+    private static final byte TYPE_SCHEDULED = 1;
+    private static final byte TYPE_REMOVED = 2;
+
+    private final RecordLog log;
+    private final Map<Long, Reminder> reminders = new HashMap<>();
+    private final RecordLog.Records unsaved = new RecordLog.Records();
+    private boolean loaded;
+
+    /**
+     * A notification to show at a given time
+     */
+    public static final class Reminder {
+        public final long id;
+        public final long atMillis;
+        public final String title;
+        public final String message;
+
+        public Reminder(long id, long atMillis, String title, String message) {
+            this.id = id;
+            this.atMillis = atMillis;
+            this.title = title;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param file the log file
+     */
+    public ReminderStore(File file) {
+        this.log = new RecordLog(file);
+    }
+
+    /**
+     * Reads every stored reminder
+     *
+     * @return the reminders, in no particular order
+     */
+    public synchronized List<Reminder> load() {
+        ensureLoaded();
+        return new ArrayList<>(reminders.values());
+    }
+
+    /**
+     * Gets a stored reminder
+     *
+     * @param id the reminder ID
+     * @return the reminder, or null if there is none with that ID
+     */
+    public synchronized Reminder get(long id) {
+        ensureLoaded();
+        return reminders.get(id);
+    }
+
+    /**
+     * Adds a reminder, replacing any with the same ID. Stored at the next flush.
+     *
+     * @param reminder the reminder
+     */
+    public synchronized void put(Reminder reminder) {
+        ensureLoaded();
+        reminders.put(reminder.id, reminder);
+        appendRecord(unsaved, reminder.id, reminder);
+    }
+
+    /**
+     * Removes a reminder. Stored at the next flush.
+     *
+     * @param id the reminder ID
+     */
+    public synchronized void remove(long id) {
+        ensureLoaded();
+        if (reminders.remove(id) != null) {
+            appendRecord(unsaved, id, null);
+        }
+    }
+
+    /**
+     * Appends the buffered changes to the log, blocking until they are durable,
+     * and compacts the log if it has grown well past its live contents
+     */
+    public synchronized void flush() {
+        if (unsaved.count() == 0) {
+            return;
+        }
+        if (!log.append(unsaved)) {
+            // Keep the changes buffered, so the next flush tries again
+            return;
+        }
+        unsaved.clear();
+
+        if (log.needsCompaction(reminders.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Reads the log into memory on first access
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        log.replay(this::readRecord);
+    }
+
+    /**
+     * Applies one record to the reminders
+     *
+     * @param record the record payload
+     * @throws BufferUnderflowException if the record is malformed
+     */
+    private void readRecord(ByteBuffer record) {
+        byte type = record.get();
+        long id = record.getLong();
+        if (type == TYPE_SCHEDULED) {
+            long atMillis = record.getLong();
+            String title = RecordLog.readString(record);
+            String message = RecordLog.readString(record);
+            reminders.put(id, new Reminder(id, atMillis, title, message));
+        } else if (type == TYPE_REMOVED) {
+            reminders.remove(id);
+        } else {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    /**
+     * Encodes one record
+     *
+     * @param records  the records to add to
+     * @param id       the reminder ID
+     * @param reminder the reminder, or null to record a removal
+     */
+    private static void appendRecord(RecordLog.Records records, long id, Reminder reminder) {
+        byte[] titleBytes = null;
+        byte[] messageBytes = null;
+        int length = 1 + 8;
+        if (reminder != null) {
+            titleBytes = reminder.title.getBytes(RecordLog.UTF_8);
+            messageBytes = reminder.message.getBytes(RecordLog.UTF_8);
+            length += 8 + RecordLog.sizeOf(titleBytes) + RecordLog.sizeOf(messageBytes);
+        }
+
+        ByteBuffer buffer = records.add(length);
+        buffer.put(reminder != null ? TYPE_SCHEDULED : TYPE_REMOVED);
+        buffer.putLong(id);
+        if (reminder != null) {
+            buffer.putLong(reminder.atMillis);
+            RecordLog.putString(buffer, titleBytes);
+            RecordLog.putString(buffer, messageBytes);
+        }
+    }
+
+    /**
+     * Rewrites the log with a single record per live reminder
+     */
+    private void compact() {
+        RecordLog.Records records = new RecordLog.Records();
+        for (Reminder reminder : reminders.values()) {
+            appendRecord(records, reminder.id, reminder);
+        }
+        log.rewrite(records);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.modernapp;
+
+import java.util.List;
+
+/**
+ * Flags naming the fields of a list row that changed. They are passed to
+ * RecyclerView as change payloads, so that rebinding a changed row only updates
+ * those fields; a new description, for example, doesn't reload the icon.
+ */
+public class RowChange {
+    public static final int ICON = 1;
+    public static final int TITLE = 1 << 1;
+    public static final int DESCRIPTION = 1 << 2;
+    public static final int TEXT = TITLE | DESCRIPTION;
+    public static final int ALL = ICON | TEXT;
+
+    /**
+     * Compares the fields of two versions of a row
+     *
+     * @param oldIcon        the old icon resource
+     * @param oldTitle       the old title
+     * @param oldDescription the old description
+     * @param newIcon        the new icon resource
+     * @param newTitle       the new title
+     * @param newDescription the new description
+     * @return the flags of the fields that differ, or 0 if none do
+     */
+    public static int diff(int oldIcon, String oldTitle, String oldDescription,
+                           int newIcon, String newTitle, String newDescription) {
+        int changes = 0;
+        if (oldIcon != newIcon) {
+            changes |= ICON;
+        }
+        if (!oldTitle.equals(newTitle)) {
+            changes |= TITLE;
+        }
+        if (!oldDescription.equals(newDescription)) {
+            changes |= DESCRIPTION;
+        }
+        return changes;
+    }
+
+    /**
+     * Combines the payloads of a partial bind
+     *
+     * @param payloads the payloads passed to onBindViewHolder
+     * @return the flags of every field to update; all of them if a payload isn't a set of flags
+     */
+    public static int merge(List<Object> payloads) {
+        int changes = 0;
+        // Indexed loop, so binding doesn't allocate an iterator
+        for (int i = 0; i < payloads.size(); i++) {
+            Object payload = payloads.get(i);
+            if (!(payload instanceof Integer)) {
+                return ALL;
+            }
+            changes |= (Integer) payload;
+        }
+        return changes;
+    }
+}
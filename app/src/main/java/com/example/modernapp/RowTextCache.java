@@ -0,0 +1,200 @@
+package com.example.modernapp;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Builds the text layouts of list rows on a background thread ahead of binding,
+ * and keeps them in an LRU cache keyed by the items' stable IDs. Binding a row whose layouts are
+ * ready only swaps them in, so no text is measured on the main thread while scrolling.
+ * Rows without an ID share no identity, so they aren't cached and are laid out as bound.
+ * Lookups and prefetch requests reuse their storage, so binding allocates nothing.
+ *
+ * The style and width of the rows are learned from the first row bound after layout;
+ * until then, and for any row missed by the prefetch, text is laid out as it is bound.
+ * All methods except the background work must be called on the main thread.
+ */
+public class RowTextCache {
+    public static final int DEFAULT_MAX_ROWS = 200;
+    public static final int DEFAULT_PREFETCH_ROWS = 12;
+
+    private static Handler backgroundHandler;
+
+    // Thread-safe; written on the background thread and read while binding
+    private final LongLruCache<FeatureRowView.TextLayouts> cache;
+    private final int prefetchRows;
+    // Batches the background thread is done with, guarded by itself
+    private final ArrayDeque<PrefetchBatch> freeBatches = new ArrayDeque<>();
+    private FeatureRowView.TextStyle style;
+    private int textWidth = -1;
+    private int lastBoundPosition = -1;
+    // Positions already queued for prefetching, so consecutive binds don't queue them again
+    private int requestedFrom;
+    private int requestedTo;
+
+    /**
+     * Text of rows to lay out in the background, reused once the layouts are cached
+     */
+    private final class PrefetchBatch implements Runnable {
+        final long[] ids = new long[prefetchRows];
+        final String[] titles = new String[prefetchRows];
+        final String[] descriptions = new String[prefetchRows];
+        int count;
+        FeatureRowView.TextStyle style;
+        int width;
+
+        @Override
+        public void run() {
+            for (int i = 0; i < count; i++) {
+                cache.put(ids[i], style.build(titles[i], descriptions[i], width));
+            }
+            // Don't keep the text alive while the batch waits to be reused
+            Arrays.fill(titles, 0, count, null);
+            Arrays.fill(descriptions, 0, count, null);
+            count = 0;
+            synchronized (freeBatches) {
+                freeBatches.add(this);
+            }
+        }
+    }
+
+    /**
+     * Constructs a cache with the default size and prefetch distance
+     */
+    public RowTextCache() {
+        this(DEFAULT_MAX_ROWS, DEFAULT_PREFETCH_ROWS);
+    }
+
+    /**
+     * Constructs a cache
+     *
+     * @param maxRows      maximum number of rows kept
+     * @param prefetchRows number of rows prepared ahead of the last bound row
+     */
+    public RowTextCache(int maxRows, int prefetchRows) {
+        this.cache = new LongLruCache<>(maxRows);
+        this.prefetchRows = prefetchRows;
+    }
+
+    /**
+     * Sets a row's text from the cache if it is ready there, or lays it out directly,
+     * and starts preparing the rows that come next in the direction of scrolling
+     *
+     * @param row      the row being bound
+     * @param items    the items shown in the list
+     * @param position the position being bound
+     */
+    public void bind(FeatureRowView row, ItemColumns items, int position) {
+        String title = items.getTitle(position);
+        String description = items.getDescription(position);
+        long id = items.getId(position);
+        FeatureRowView.TextLayouts layouts = id != DataManager.ItemModel.NO_ID ? cache.get(id) : null;
+        if (layouts != null && layouts.matches(title, description, row.getTextWidth())) {
+            row.setText(layouts);
+        } else {
+            row.setText(title, description);
+        }
+
+        if (style == null || !style.isFor(row)) {
+            style = row.getTextStyle();
+        }
+        if (row.getTextWidth() > 0 && row.getTextWidth() != textWidth) {
+            // Cached layouts for the old width are dropped as they are found not to match
+            textWidth = row.getTextWidth();
+            requestedFrom = requestedTo = 0;
+        }
+        prefetch(items, position);
+    }
+
+    /**
+     * Forgets which positions were prepared, after the items were replaced.
+     * Cached layouts are kept, since they are found by ID and checked against the text.
+     */
+    public void onItemsReplaced() {
+        requestedFrom = requestedTo = 0;
+        lastBoundPosition = -1;
+    }
+
+    /**
+     * Queues layout of the rows following a bound position
+     *
+     * @param items    the items shown in the list
+     * @param position the position being bound
+     */
+    private void prefetch(ItemColumns items, int position) {
+        boolean forward = position >= lastBoundPosition;
+        lastBoundPosition = position;
+        if (textWidth <= 0) {
+            return;
+        }
+        // Wait until half the queued rows have been used before queueing more
+        int margin = prefetchRows / 2;
+        if (forward ? position >= requestedFrom && position + margin < requestedTo
+                : position < requestedTo && position - margin >= requestedFrom) {
+            return;
+        }
+        int from = forward ? position + 1 : Math.max(0, position - prefetchRows);
+        int to = forward ? Math.min(items.size(), position + 1 + prefetchRows) : position;
+        int previousFrom = requestedFrom;
+        int previousTo = requestedTo;
+        requestedFrom = from;
+        requestedTo = to;
+
+        // Read the text here: item sources are only safe to use from the main thread
+        PrefetchBatch batch = obtainBatch();
+        for (int i = from; i < to; i++) {
+            if (i >= previousFrom && i < previousTo) {
+                // Queued last time, and possibly still being built
+                continue;
+            }
+            long id = items.getId(i);
+            if (id == DataManager.ItemModel.NO_ID) {
+                continue;
+            }
+            String title = items.getTitle(i);
+            String description = items.getDescription(i);
+            FeatureRowView.TextLayouts cached = cache.get(id);
+            if (cached == null || !cached.matches(title, description, textWidth)) {
+                batch.ids[batch.count] = id;
+                batch.titles[batch.count] = title;
+                batch.descriptions[batch.count] = description;
+                batch.count++;
+            }
+        }
+        if (batch.count == 0) {
+            synchronized (freeBatches) {
+                freeBatches.add(batch);
+            }
+            return;
+        }
+
+        batch.style = style;
+        batch.width = textWidth;
+        backgroundHandler().post(batch);
+    }
+
+    /**
+     * Takes a batch the background thread is done with, or makes one if all are queued
+     *
+     * @return an empty batch
+     */
+    private PrefetchBatch obtainBatch() {
+        synchronized (freeBatches) {
+            PrefetchBatch batch = freeBatches.poll();
+            return batch != null ? batch : new PrefetchBatch();
+        }
+    }
+
+    private static Handler backgroundHandler() {
+        if (backgroundHandler == null) {
+            HandlerThread thread = new HandlerThread("RowText", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            backgroundHandler = new Handler(thread.getLooper());
+        }
+        return backgroundHandler;
+    }
+}
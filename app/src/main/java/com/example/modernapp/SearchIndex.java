@@ -0,0 +1,317 @@
+package com.example.modernapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index for full-text search over short text fields such as
+ * titles and descriptions. Documents are identified by small non-negative ints,
+ * typically their position in a list. Posting lists are sorted int arrays.
+ *
+ * A query matches documents containing every query token. The last token also
+ * matches as a prefix, so results update as the user types.
+ */
+public class SearchIndex {
+    private static final int[] EMPTY = new int[0];
+
+    // Sorted by term so that all terms sharing a prefix are adjacent
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private String[][] documentTerms = new String[16][];
+    private int maxDocumentId = -1;
+
+    /**
+     * Sorted, growable list of document ids
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Adds a document, or replaces it if it is already indexed
+     *
+     * @param id     the document id
+     * @param fields the text fields of the document
+     */
+    public synchronized void put(int id, String... fields) {
+        remove(id);
+
+        List<String> terms = new ArrayList<>();
+        for (String field : fields) {
+            tokenize(field, terms);
+        }
+        String[] uniqueTerms = new String[terms.size()];
+        int count = 0;
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                list = new Postings();
+                postings.put(term, list);
+            }
+            int sizeBefore = list.size;
+            list.add(id);
+            if (list.size != sizeBefore) {
+                uniqueTerms[count++] = term;
+            }
+        }
+
+        if (id >= documentTerms.length) {
+            documentTerms = Arrays.copyOf(documentTerms, Math.max(id + 1, documentTerms.length * 2));
+        }
+        documentTerms[id] = Arrays.copyOf(uniqueTerms, count);
+        maxDocumentId = Math.max(maxDocumentId, id);
+    }
+
+    /**
+     * Removes a document from the index
+     *
+     * @param id the document id
+     */
+    public synchronized void remove(int id) {
+        if (id >= documentTerms.length || documentTerms[id] == null) {
+            return;
+        }
+        for (String term : documentTerms[id]) {
+            Postings list = postings.get(term);
+            list.remove(id);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        documentTerms[id] = null;
+    }
+
+    /**
+     * Removes every document from the index
+     */
+    public synchronized void clear() {
+        postings.clear();
+        documentTerms = new String[16][];
+        maxDocumentId = -1;
+    }
+
+    /**
+     * Finds the documents matching a query
+     *
+     * @param query the query text
+     * @return the ids of matching documents in ascending order, or every
+     *         indexed document if the query has no tokens
+     */
+    public synchronized int[] search(String query) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(query, tokens);
+        if (tokens.isEmpty()) {
+            return allDocuments();
+        }
+
+        Postings[] matches = new Postings[tokens.size()];
+        for (int i = 0; i < matches.length - 1; i++) {
+            matches[i] = postings.get(tokens.get(i));
+            if (matches[i] == null) {
+                return EMPTY;
+            }
+        }
+        // Every term starting with the prefix sorts before prefix + Character.MAX_VALUE
+        String prefix = tokens.get(matches.length - 1);
+        Iterator<Postings> prefixed = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .values().iterator();
+        if (!prefixed.hasNext()) {
+            return EMPTY;
+        }
+        Postings first = prefixed.next();
+        long[] union = null;
+        int unionSize = 0;
+        if (prefixed.hasNext()) {
+            union = new long[(maxDocumentId >> 6) + 1];
+            unionSize = union(first, prefixed, union);
+            matches = Arrays.copyOf(matches, matches.length - 1);
+        } else {
+            matches[matches.length - 1] = first;
+        }
+
+        // Intersect starting from the shortest list so every step is as small as possible.
+        // Filtering by the prefix bitmap costs one cheap step per id, so a list somewhat
+        // longer than the prefix matches still goes first.
+        Arrays.sort(matches, (a, b) -> a.size - b.size);
+        int[] result;
+        int next = 0;
+        if (union == null || (matches.length > 0 && matches[0].size / 8 < unionSize)) {
+            result = Arrays.copyOf(matches[0].ids, matches[0].size);
+            next = 1;
+        } else {
+            result = toIds(union, unionSize);
+            union = null;
+        }
+        int resultSize = union == null ? result.length : retainAll(result, result.length, union);
+        for (int i = next; i < matches.length && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, matches[i]);
+        }
+        return resultSize == result.length ? result : Arrays.copyOf(result, resultSize);
+    }
+
+    /**
+     * Sets the bits of every document in some posting lists
+     *
+     * @param first the first list
+     * @param rest  the other lists
+     * @param words the bitmap, indexed by document id
+     * @return the number of documents in the union
+     */
+    private static int union(Postings first, Iterator<Postings> rest, long[] words) {
+        // Without a branch per id, which would be mispredicted half the time
+        for (Postings list = first; list != null; list = rest.hasNext() ? rest.next() : null) {
+            for (int i = 0; i < list.size; i++) {
+                int id = list.ids[i];
+                words[id >> 6] |= 1L << id;
+            }
+        }
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Lists the documents of a bitmap
+     *
+     * @param words the bitmap
+     * @param count the number of bits set
+     * @return the ids in ascending order
+     */
+    private static int[] toIds(long[] words, int count) {
+        int[] ids = new int[count];
+        int size = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                ids[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Keeps only the ids whose bit is set in a bitmap
+     *
+     * @param ids   sorted ids, overwritten with the ids kept
+     * @param size  number of valid entries in ids
+     * @param words the bitmap
+     * @return the number of ids kept
+     */
+    private static int retainAll(int[] ids, int size, long[] words) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            ids[count] = id;
+            count += (int) (words[id >> 6] >>> id) & 1;
+        }
+        return count;
+    }
+
+    /**
+     * Keeps only the ids that also appear in a posting list
+     *
+     * @param ids   sorted ids, overwritten with the intersection
+     * @param size  number of valid entries in ids
+     * @param other the posting list to intersect with
+     * @return the size of the intersection
+     */
+    private static int intersect(int[] ids, int size, Postings other) {
+        int[] otherIds = other.ids;
+        int count = 0;
+        int j = 0;
+        if (other.size / 32 > size) {
+            // Much longer list: binary search each id from where the last one was found
+            for (int i = 0; i < size && j < other.size; i++) {
+                int index = Arrays.binarySearch(otherIds, j, other.size, ids[i]);
+                if (index >= 0) {
+                    ids[count++] = ids[i];
+                    j = index + 1;
+                } else {
+                    j = -index - 1;
+                }
+            }
+            return count;
+        }
+        int i = 0;
+        // Advances either side by comparison results rather than branches, which
+        // interleaved ids would mispredict about every other step
+        while (i < size && j < other.size) {
+            int a = ids[i];
+            int b = otherIds[j];
+            ids[count] = a;
+            count += a == b ? 1 : 0;
+            i += a <= b ? 1 : 0;
+            j += a >= b ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Lists every indexed document
+     *
+     * @return the ids of all documents in ascending order
+     */
+    private int[] allDocuments() {
+        int[] ids = new int[maxDocumentId + 1];
+        int count = 0;
+        for (int id = 0; id <= maxDocumentId; id++) {
+            if (documentTerms[id] != null) {
+                ids[count++] = id;
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Splits text into lower-case runs of letters and digits
+     *
+     * @param text   the text to split, may be null
+     * @param tokens list the tokens are added to
+     */
+    private static void tokenize(String text, List<String> tokens) {
+        if (text == null) {
+            return;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+}
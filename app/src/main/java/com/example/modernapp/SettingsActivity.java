@@ -30,7 +30,7 @@ public class SettingsActivity extends AppCompatActivity {
 
         // Initialize data manager and notification service
         dataManager = DataManager.getInstance(this);
-        notificationService = new NotificationService(this);
+        notificationService = NotificationService.getInstance(this);
 
         // Set up toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -49,19 +49,26 @@ public class SettingsActivity extends AppCompatActivity {
         saveButton = findViewById(R.id.saveButton);
         cancelButton = findViewById(R.id.cancelButton);
 
-        // Load current settings
-        loadSettings();
-
         // Set up click listeners
         setupClickListeners();
+
+        // Load current settings without blocking the first frame
+        loadSettings();
     }
 
     /**
-     * Loads current settings from DataManager
+     * Loads current settings from DataManager and binds them once available
      */
     private void loadSettings() {
-        notificationsSwitch.setChecked(dataManager.areNotificationsEnabled());
-        darkModeSwitch.setChecked(dataManager.isDarkModeEnabled());
+        saveButton.setEnabled(false);
+        dataManager.load(snapshot -> {
+            notificationsSwitch.setChecked(snapshot.areNotificationsEnabled());
+            darkModeSwitch.setChecked(snapshot.isDarkModeEnabled());
+
+            // Listen for changes only after binding, so the loaded values don't trigger toasts
+            setupSwitchListeners();
+            saveButton.setEnabled(true);
+        });
     }
 
     /**
@@ -70,12 +77,15 @@ public class SettingsActivity extends AppCompatActivity {
     private void setupClickListeners() {
         saveButton.setOnClickListener(v -> {
             // Save settings to DataManager
-            dataManager.setNotificationsEnabled(notificationsSwitch.isChecked());
-            dataManager.setDarkModeEnabled(darkModeSwitch.isChecked());
+            dataManager.edit(editor -> editor
+                    .setNotificationsEnabled(notificationsSwitch.isChecked())
+                    .setDarkModeEnabled(darkModeSwitch.isChecked()));
 
             // Show confirmation notification if notifications are enabled
             if (notificationsSwitch.isChecked()) {
                 notificationService.showNotification(
+                        NotificationService.SETTINGS_UPDATED_ID,
+                        NotificationService.Priority.LOW,
                         "Settings Updated", 
                         "Your settings have been saved successfully"
                 );
@@ -90,8 +100,12 @@ public class SettingsActivity extends AppCompatActivity {
             Utils.showToast(this, "Settings not saved");
             Utils.finishWithAnimation(this, R.anim.fade_in, R.anim.fade_out);
         });
+    }
 
-        // Switch listeners
+    /**
+     * Sets up change listeners for the switches
+     */
+    private void setupSwitchListeners() {
         notificationsSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
             String status = isChecked ? "enabled" : "disabled";
             Utils.showToast(this, "Notifications " + status);
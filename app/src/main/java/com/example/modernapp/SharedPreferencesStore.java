@@ -0,0 +1,42 @@
+package com.example.modernapp;
+
+import android.content.SharedPreferences;
+
+import java.util.Map;
+
+/**
+ * Preference store backed by the platform XML {@link SharedPreferences}
+ */
+public class SharedPreferencesStore implements PreferenceStore {
+    private final SharedPreferences preferences;
+
+    /**
+     * Constructor
+     *
+     * @param preferences the preferences to read and write
+     */
+    public SharedPreferencesStore(SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    @Override
+    public Map<String, ?> load() {
+        return preferences.getAll();
+    }
+
+    @Override
+    public void write(Map<String, ?> values) {
+        SharedPreferences.Editor editor = preferences.edit().clear();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                editor.putBoolean(entry.getKey(), (Boolean) value);
+            } else if (value instanceof String) {
+                editor.putString(entry.getKey(), (String) value);
+            } else {
+                throw new IllegalArgumentException("Unsupported value type for " + entry.getKey());
+            }
+        }
+        editor.commit();
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.modernapp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hierarchical timer wheel holding deadlines by ID.
+ * Scheduling and cancelling take constant time whatever the number of timers.
+ *
+ * The wheel has {@link #LEVELS} levels of {@link #SLOTS} slots. Level 0 slots span
+ * one tick each, and each level's slots span as much as the whole level below it.
+ * A timer is kept at the lowest level whose range reaches its deadline. Its slot is
+ * moved down a level as the wheel turns past the start of the slot, until the timer
+ * expires from level 0. Deadlines beyond the top level wait in its last slot.
+ *
+ * Time only moves forward through {@link #advance}; the wheel reads no clock itself.
+ * Not thread-safe.
+ */
+public class TimerWheel {
+    private static final int SLOT_BITS = 6;
+    public static final int SLOTS = 1 << SLOT_BITS;
+    public static final int LEVELS = 4;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // Ticks covered by all levels together
+    private static final long RANGE = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private final int[] levelCounts = new int[LEVELS];
+    private final Map<Long, Timer> timers = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * Called for each timer reaching its deadline
+     */
+    public interface ExpiryListener {
+        void onExpired(long id);
+    }
+
+    /**
+     * A scheduled deadline, linked into the list of its slot
+     */
+    private static final class Timer {
+        final long id;
+        final long deadlineMillis;
+        final long deadlineTick;
+        int level;
+        int slot;
+        Timer previous;
+        Timer next;
+
+        Timer(long id, long deadlineMillis, long deadlineTick) {
+            this.id = id;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tickMillis resolution of the wheel; deadlines are rounded up to whole ticks
+     * @param nowMillis  the current time
+     */
+    public TimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a timer, replacing any timer with the same ID.
+     * A deadline already passed expires on the next tick.
+     *
+     * @param id             the timer ID
+     * @param deadlineMillis the deadline, in the same time base as {@link #advance}
+     */
+    public void schedule(long id, long deadlineMillis) {
+        cancel(id);
+        // Round up, so a timer never expires before its deadline
+        Timer timer = new Timer(id, deadlineMillis, (deadlineMillis + tickMillis - 1) / tickMillis);
+        timers.put(id, timer);
+        // The current tick has already expired, so the earliest slot is the next one
+        insert(timer, 1);
+    }
+
+    /**
+     * Cancels a timer
+     *
+     * @param id the timer ID
+     * @return true if the timer was scheduled
+     */
+    public boolean cancel(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    /**
+     * Gets the number of scheduled timers
+     *
+     * @return the timer count
+     */
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Turns the wheel up to a time, expiring every timer whose deadline has passed
+     *
+     * @param nowMillis the current time; earlier times are ignored
+     * @param listener  called for each expired timer, in order of deadline tick
+     */
+    public void advance(long nowMillis, ExpiryListener listener) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            // Skip ticks on which nothing can expire or cascade: with the lower levels
+            // empty, the next event is the start of the next slot of the lowest busy level
+            int level = 0;
+            while (level < LEVELS && levelCounts[level] == 0) {
+                level++;
+            }
+            if (level == LEVELS) {
+                currentTick = targetTick;
+                break;
+            }
+            long step = 1L << (SLOT_BITS * level);
+            currentTick = Math.min(targetTick, (currentTick / step + 1) * step);
+            cascade();
+            expire(listener);
+        }
+    }
+
+    /**
+     * Gets the earliest deadline of all scheduled timers
+     *
+     * @return the deadline, or Long.MAX_VALUE if no timer is scheduled
+     */
+    public long nextDeadline() {
+        long earliest = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            if (levelCounts[level] == 0) {
+                continue;
+            }
+            // Slots of a level are due in turn from the one after the current position.
+            // Timers parked in the top level may sit ahead of earlier ones, so scanning
+            // stops only at a slot starting after the earliest deadline found so far.
+            int bits = SLOT_BITS * level;
+            long position = currentTick >>> bits;
+            for (int i = 1; i <= SLOTS; i++) {
+                long startTick = (position + i) << bits;
+                if ((startTick - 1) * tickMillis >= earliest) {
+                    break;
+                }
+                for (Timer timer = slots[level][(int) ((position + i) & SLOT_MASK)]; timer != null; timer = timer.next) {
+                    earliest = Math.min(earliest, timer.deadlineMillis);
+                }
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Moves the timers of every slot starting at the current tick down a level
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0 || levelCounts[level] == 0) {
+                continue;
+            }
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timer timer = slots[level][slot];
+            slots[level][slot] = null;
+            while (timer != null) {
+                Timer next = timer.next;
+                levelCounts[level]--;
+                // Timers due now land in the current slot, which expires next
+                insert(timer, 0);
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Expires the timers of the level 0 slot at the current tick
+     */
+    private void expire(ExpiryListener listener) {
+        int slot = (int) (currentTick & SLOT_MASK);
+        Timer timer = slots[0][slot];
+        slots[0][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            levelCounts[0]--;
+            timers.remove(timer.id);
+            listener.onExpired(timer.id);
+            timer = next;
+        }
+    }
+
+    /**
+     * Links a timer into the slot for its deadline
+     *
+     * @param timer    the timer
+     * @param minTicks the fewest ticks from now the timer may be placed at
+     */
+    private void insert(Timer timer, long minTicks) {
+        // Overdue timers go to the earliest allowed tick; distant ones to the last slot of the top level
+        long ticks = Math.min(Math.max(timer.deadlineTick - currentTick, minTicks), RANGE - 1);
+        long tick = currentTick + ticks;
+        int level = 0;
+        while (ticks >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        timer.level = level;
+        timer.slot = slot;
+        timer.previous = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        slots[level][slot] = timer;
+        levelCounts[level]++;
+    }
+
+    /**
+     * Removes a timer from its slot
+     */
+    private void unlink(Timer timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        levelCounts[timer.level]--;
+    }
+}
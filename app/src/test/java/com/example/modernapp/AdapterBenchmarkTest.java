@@ -0,0 +1,71 @@
+package com.example.modernapp;
+
+import android.content.Context;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Inflate and bind costs of the list adapters, written to build/benchmarks.
+ * Robolectric runs the real view code on the JVM, so the numbers are for comparing
+ * builds rather than devices; frame times come from the instrumented benchmarks.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AdapterBenchmarkTest {
+    private static final int ROWS = 100;
+
+    private Context context;
+    private RecyclerView parent;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        parent = new RecyclerView(context);
+        parent.setLayoutManager(new LinearLayoutManager(context));
+    }
+
+    @Test
+    public void featureAdapter() throws Exception {
+        FeatureAdapter adapter = new FeatureAdapter(context, TestData.features(ROWS), null);
+        Benchmark benchmark = new Benchmark("FeatureAdapter");
+
+        benchmark.measure("inflate", 20, i -> adapter.onCreateViewHolder(parent, ListViewPool.VIEW_TYPE_FEATURE));
+        FeatureAdapter.FeatureViewHolder holder = adapter.onCreateViewHolder(parent, ListViewPool.VIEW_TYPE_FEATURE);
+        TestData.layOut(holder.itemView);
+        List<Object> textOnly = Collections.<Object>singletonList(RowChange.TEXT);
+        Benchmark.Result bind = benchmark.measure("bind", 500, i -> adapter.onBindViewHolder(holder, i % ROWS));
+        Benchmark.Result rebind = benchmark.measure("rebindText", 500,
+                i -> adapter.onBindViewHolder(holder, i % ROWS, textOnly));
+        benchmark.write();
+
+        assertTrue(bind.nanosPerOp > 0 && rebind.nanosPerOp > 0);
+    }
+
+    @Test
+    public void itemAdapter() throws Exception {
+        ItemAdapter adapter = new ItemAdapter(context, TestData.items(ROWS));
+        Benchmark benchmark = new Benchmark("ItemAdapter");
+
+        benchmark.measure("inflate", 20, i -> adapter.onCreateViewHolder(parent, ListViewPool.VIEW_TYPE_ITEM));
+        ItemAdapter.ViewHolder holder = adapter.onCreateViewHolder(parent, ListViewPool.VIEW_TYPE_ITEM);
+        TestData.layOut(holder.itemView);
+        List<Object> textOnly = Collections.<Object>singletonList(RowChange.TEXT);
+        Benchmark.Result bind = benchmark.measure("bind", 500, i -> adapter.onBindViewHolder(holder, i % ROWS));
+        Benchmark.Result rebind = benchmark.measure("rebindText", 500,
+                i -> adapter.onBindViewHolder(holder, i % ROWS, textOnly));
+        benchmark.write();
+
+        assertTrue(bind.nanosPerOp > 0 && rebind.nanosPerOp > 0);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.modernapp;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Small benchmark harness for JVM tests. Runs an operation through warm-up and
+ * measured rounds, reports the median time and the bytes allocated per operation,
+ * and writes the results as JSON to build/benchmarks/[name].json so runs from two
+ * builds can be diffed. Allocations are only counted on JVMs that expose them.
+ */
+final class Benchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String OUTPUT_DIR = "build/benchmarks";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 7;
+
+    private final String name;
+    private final Map<String, Map<String, Number>> results = new LinkedHashMap<>();
+
+    /**
+     * An operation to measure
+     */
+    interface Operation {
+        void run(int iteration) throws Exception;
+    }
+
+    /**
+     * Median cost of one operation
+     */
+    static final class Result {
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param name the name of the JSON file results are written to
+     */
+    Benchmark(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Measures an operation and records the result under a label
+     *
+     * @param label      the label
+     * @param iterations operations per round
+     * @param operation  the operation, passed the iteration index within its round
+     * @return the median cost of one operation
+     */
+    Result measure(String label, int iterations, Operation operation) throws Exception {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runRound(iterations, operation);
+        }
+        double[] nanos = new double[MEASURED_ROUNDS];
+        double[] bytes = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            runRound(iterations, operation);
+            nanos[round] = (double) (System.nanoTime() - start) / iterations;
+            long allocatedAfter = allocatedBytes();
+            bytes[round] = allocatedBefore < 0 ? -1 : (double) (allocatedAfter - allocatedBefore) / iterations;
+        }
+        Result result = new Result(median(nanos), median(bytes));
+        record(label, "nanosPerOp", result.nanosPerOp);
+        record(label, "bytesPerOp", result.bytesPerOp);
+        return result;
+    }
+
+    /**
+     * Records a value measured outside {@link #measure}
+     *
+     * @param label  the label
+     * @param metric the metric name
+     * @param value  the value
+     */
+    void record(String label, String metric, Number value) {
+        Map<String, Number> metrics = results.get(label);
+        if (metrics == null) {
+            metrics = new LinkedHashMap<>();
+            results.put(label, metrics);
+        }
+        metrics.put(metric, value);
+    }
+
+    /**
+     * Writes the recorded results to build/benchmarks/[name].json
+     */
+    void write() throws IOException {
+        StringBuilder json = new StringBuilder("{\n  \"benchmark\": \"").append(name).append("\",\n  \"results\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Map<String, Number>> entry : results.entrySet()) {
+            json.append(separator).append("    \"").append(entry.getKey()).append("\": {");
+            String metricSeparator = "";
+            for (Map.Entry<String, Number> metric : entry.getValue().entrySet()) {
+                json.append(metricSeparator).append('"').append(metric.getKey()).append("\": ")
+                        .append(format(metric.getValue()));
+                metricSeparator = ", ";
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+
+        File dir = new File(OUTPUT_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create " + dir);
+        }
+        try (FileOutputStream out = new FileOutputStream(new File(dir, name + ".json"))) {
+            out.write(json.toString().getBytes(UTF_8));
+        }
+    }
+
+    /**
+     * Gets the bytes allocated so far by the calling thread
+     *
+     * @return the byte count, or -1 if the JVM doesn't count allocations
+     */
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) bean;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()) {
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the heap in use after a full collection, for comparing footprints
+     *
+     * @return the used heap in bytes
+     */
+    static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // A single gc() is only a hint; take the lowest of a few
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Gets a percentile of some values
+     *
+     * @param values  the values
+     * @param count   number of values to use from the start of the array
+     * @param percent the percentile, from 0 to 100
+     * @return the smallest value at or above that share of values
+     */
+    static long percentile(long[] values, int count, double percent) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(count * percent / 100);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static void runRound(int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            operation.run(i);
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String format(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.US, "%.1f", value.doubleValue());
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.modernapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryLogStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reloadsWrittenValues() throws IOException {
+        File file = folder.newFile("prefs.bin");
+        BinaryLogStore store = new BinaryLogStore(file, Runnable::run);
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Ada");
+        values.put("enabled", true);
+        store.write(values);
+        values.put("name", "Grace");
+        values.remove("enabled");
+        store.write(values);
+
+        assertEquals(values, new BinaryLogStore(file, Runnable::run).load());
+    }
+
+    @Test
+    public void truncatesTornRecord() throws IOException {
+        File file = folder.newFile("prefs.bin");
+        new BinaryLogStore(file, Runnable::run).write(singleton("name", "Ada"));
+        long validLength = file.length();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            // A record length with only part of the record behind it
+            out.write(new byte[]{0, 0, 0, 40, 1, 0});
+        }
+
+        assertEquals(singleton("name", "Ada"), new BinaryLogStore(file, Runnable::run).load());
+        assertEquals(validLength, file.length());
+    }
+
+    @Test
+    public void truncatesRecordWithOversizedStringLength() throws IOException {
+        assertTruncatesCorruptKeyLength(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void truncatesRecordWithNegativeStringLength() throws IOException {
+        assertTruncatesCorruptKeyLength(-3);
+    }
+
+    /**
+     * Corrupts the key length of the second of two records, and checks that loading
+     * keeps the first, cuts the log after it, and leaves it usable for new writes
+     */
+    private void assertTruncatesCorruptKeyLength(int keyLength) throws IOException {
+        File file = folder.newFile("prefs.bin");
+        BinaryLogStore store = new BinaryLogStore(file, Runnable::run);
+        Map<String, Object> values = singleton("name", "Ada");
+        store.write(values);
+        long firstRecordEnd = file.length();
+        values.put("email", "ada@example.com");
+        store.write(values);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Skip the record length and type
+            raf.seek(firstRecordEnd + 4 + 1);
+            raf.writeInt(keyLength);
+        }
+
+        BinaryLogStore reloaded = new BinaryLogStore(file, Runnable::run);
+        assertEquals(singleton("name", "Ada"), reloaded.load());
+        assertEquals(firstRecordEnd, file.length());
+
+        Map<String, Object> updated = singleton("name", "Grace");
+        reloaded.write(updated);
+        assertEquals(updated, new BinaryLogStore(file, Runnable::run).load());
+    }
+
+    @Test
+    public void writeAtomicallyCreatesCompleteLog() throws IOException {
+        File file = new File(folder.getRoot(), "prefs.bin");
+        BinaryLogStore store = new BinaryLogStore(file, Runnable::run);
+        Map<String, Object> values = singleton("name", "Ada");
+        values.put("enabled", false);
+
+        assertTrue(store.writeAtomically(values));
+        assertTrue(store.exists());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        assertEquals(values, new BinaryLogStore(file, Runnable::run).load());
+    }
+
+    @Test
+    public void writeAtomicallyFailureLeavesNoLog() {
+        // The parent directory doesn't exist, so the temporary file can't be created
+        File file = new File(new File(folder.getRoot(), "missing"), "prefs.bin");
+        BinaryLogStore store = new BinaryLogStore(file, Runnable::run);
+
+        assertFalse(store.writeAtomically(singleton("name", "Ada")));
+        assertFalse(store.exists());
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    public void benchmarkColdLoadAndWrite() throws Exception {
+        Benchmark benchmark = new Benchmark("BinaryLogStore");
+        for (int keys : new int[]{10, 1_000, 100_000}) {
+            File file = folder.newFile("prefs-" + keys + ".bin");
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < keys; i++) {
+                values.put("key" + i, i % 2 == 0 ? "value" + i : (Object) (i % 3 == 0));
+            }
+            BinaryLogStore store = new BinaryLogStore(file, Runnable::run);
+            store.write(values);
+
+            int iterations = Math.max(1, 10_000 / keys);
+            benchmark.measure("coldLoad/" + keys, iterations,
+                    i -> assertEquals(keys, new BinaryLogStore(file, Runnable::run).load().size()));
+            // Each write changes one key, so it appends a single record
+            benchmark.measure("writeOneKey/" + keys, iterations, i -> {
+                values.put("key0", "changed" + i);
+                store.write(values);
+            });
+            benchmark.record("coldLoad/" + keys, "fileBytes", file.length());
+        }
+        benchmark.write();
+    }
+
+    private static Map<String, Object> singleton(String key, Object value) {
+        Map<String, Object> values = new HashMap<>();
+        values.put(key, value);
+        return values;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.modernapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Migration of the XML preferences into the binary store
+ */
+public class DataManagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void migrationSkipsUnsupportedValues() {
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("user_name", "Jane");
+        legacy.put("dark_mode_enabled", true);
+        // Left behind by some other version; the binary store can't hold these
+        legacy.put("launch_count", 3);
+        legacy.put("last_seen", 1_700_000_000_000L);
+
+        Map<String, Object> migrated = DataManager.migratableValues(legacy);
+        assertEquals(2, migrated.size());
+        assertEquals("Jane", migrated.get("user_name"));
+        assertEquals(true, migrated.get("dark_mode_enabled"));
+
+        // What is left migrates instead of aborting the migration
+        File file = new File(folder.getRoot(), "prefs.bin");
+        assertTrue(new BinaryLogStore(file, Runnable::run).writeAtomically(migrated));
+        assertEquals(migrated, new BinaryLogStore(file, Runnable::run).load());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Click handling and bind allocations of {@link FeatureAdapter}
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FeatureAdapterTest {
+    private static final int LIST_HEIGHT = 1920;
+    private static final int ROWS = 100;
+    // The smallest object there is; allocating anything on each bind costs at least this
+    private static final int MIN_OBJECT_BYTES = 16;
+
+    private Context context;
+    private RecyclerView list;
+    private final List<Feature> clickedFeatures = new ArrayList<>();
+    private final List<Integer> clickedPositions = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        list = new RecyclerView(context);
+        list.setLayoutManager(new LinearLayoutManager(context));
+        list.setItemAnimator(null);
+    }
+
+    private void layOutList() {
+        list.measure(View.MeasureSpec.makeMeasureSpec(TestData.ROW_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(LIST_HEIGHT, View.MeasureSpec.EXACTLY));
+        list.layout(0, 0, TestData.ROW_WIDTH, LIST_HEIGHT);
+    }
+
+    private FeatureAdapter newAdapter(List<Feature> features) {
+        return new FeatureAdapter(context, features, (feature, position) -> {
+            clickedFeatures.add(feature);
+            clickedPositions.add(position);
+        });
+    }
+
+    @Test
+    public void clickReportsFeatureAtCurrentPosition() throws Exception {
+        List<Feature> features = TestData.features(20);
+        FeatureAdapter adapter = newAdapter(features);
+        list.setAdapter(adapter);
+        layOutList();
+
+        View row = list.getChildAt(3);
+        row.performClick();
+        assertSame(features.get(3), clickedFeatures.get(0));
+        assertEquals(3, (int) clickedPositions.get(0));
+
+        // Removing the first feature moves the row up without rebinding it
+        List<Feature> shorter = new ArrayList<>(features.subList(1, features.size()));
+        adapter.submitList(shorter);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (adapter.getItemCount() != shorter.size()) {
+            assertTrue("diff wasn't applied", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+            ShadowLooper.idleMainLooper();
+        }
+        layOutList();
+
+        row.performClick();
+        assertSame(features.get(3), clickedFeatures.get(1));
+        assertEquals(2, (int) clickedPositions.get(1));
+    }
+
+    @Test
+    public void rebindingAllocatesNothing() throws Exception {
+        FeatureAdapter adapter = newAdapter(TestData.features(ROWS));
+        FeatureAdapter.FeatureViewHolder holder = adapter.onCreateViewHolder(list, ListViewPool.VIEW_TYPE_FEATURE);
+        TestData.layOut(holder.itemView);
+        // Bind every row once, then let the text cache prepare their layouts in the background
+        for (int i = 0; i < ROWS; i++) {
+            adapter.onBindViewHolder(holder, i);
+        }
+        Thread.sleep(500);
+
+        // Icons go through Glide, which builds a request per load, so only text is rebound here
+        List<Object> textOnly = Collections.<Object>singletonList(RowChange.TEXT);
+        Benchmark benchmark = new Benchmark("FeatureAdapterAllocations");
+        Benchmark.Result rebind = benchmark.measure("rebindText", 1_000,
+                i -> adapter.onBindViewHolder(holder, i % ROWS, textOnly));
+        Benchmark.Result bind = benchmark.measure("bind", 1_000, i -> adapter.onBindViewHolder(holder, i % ROWS));
+        benchmark.write();
+
+        // Occasional prefetch requests allocate, but nothing may be allocated on every bind
+        assertTrue("rebind allocated " + rebind.bytesPerOp + " bytes", rebind.bytesPerOp < MIN_OBJECT_BYTES);
+        assertTrue(bind.nanosPerOp > 0);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.ColorDrawable;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Layout direction handling of {@link FeatureRowView}, and the cost of its layout pass
+ * compared with the card of nested layouts it replaced, written to build/benchmarks
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FeatureRowViewTest {
+    private static final int PADDING_START = 10;
+    private static final int PADDING_END = 30;
+    private static final int TEXTS = 64;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+    }
+
+    /**
+     * Lays out and draws a horizontal row, returning where its icon was drawn
+     */
+    private Rect drawnIconBounds(int layoutDirection) {
+        FeatureRowView row = new FeatureRowView(context);
+        ColorDrawable icon = new ColorDrawable(0xFF0000FF);
+        row.setIconDrawable(icon);
+        row.setText("Title", "Description");
+        row.setPaddingRelative(PADDING_START, 0, PADDING_END, 0);
+        row.setLayoutDirection(layoutDirection);
+        TestData.layOut(row);
+        row.draw(new Canvas(Bitmap.createBitmap(row.getWidth(), row.getHeight(), Bitmap.Config.ARGB_8888)));
+        assertEquals(row.getIconSize(), icon.getBounds().width());
+        return icon.getBounds();
+    }
+
+    @Test
+    public void iconOnLeftInLeftToRightLayout() {
+        assertEquals(PADDING_START, drawnIconBounds(View.LAYOUT_DIRECTION_LTR).left);
+    }
+
+    @Test
+    public void iconOnRightInRightToLeftLayout() {
+        // The start padding is on the right too
+        assertEquals(TestData.ROW_WIDTH - PADDING_START, drawnIconBounds(View.LAYOUT_DIRECTION_RTL).right);
+    }
+
+    @Test
+    public void textWidthLeavesRoomForIconInBothDirections() {
+        FeatureRowView ltr = new FeatureRowView(context);
+        FeatureRowView rtl = new FeatureRowView(context);
+        for (FeatureRowView row : new FeatureRowView[]{ltr, rtl}) {
+            row.setText("Title", "Description");
+            row.setPaddingRelative(PADDING_START, 0, PADDING_END, 0);
+        }
+        rtl.setLayoutDirection(View.LAYOUT_DIRECTION_RTL);
+        TestData.layOut(ltr);
+        TestData.layOut(rtl);
+
+        assertEquals(ltr.getTextWidth(), rtl.getTextWidth());
+        assertTrue(ltr.getTextWidth() < TestData.ROW_WIDTH - PADDING_START - PADDING_END);
+    }
+
+    @Test
+    public void layoutsBuiltForOtherDirectionAreNotUsed() {
+        FeatureRowView ltr = new FeatureRowView(context);
+        FeatureRowView rtl = new FeatureRowView(context);
+        rtl.setLayoutDirection(View.LAYOUT_DIRECTION_RTL);
+        TestData.layOut(ltr);
+        TestData.layOut(rtl);
+
+        assertTrue(ltr.getTextStyle().isFor(ltr));
+        assertTrue(!ltr.getTextStyle().isFor(rtl));
+        // Falls back to laying the text out itself
+        rtl.setText(ltr.getTextStyle().build("Title", "Description", rtl.getTextWidth()));
+        TestData.layOut(rtl);
+        assertTrue(rtl.getHeight() > 0);
+    }
+
+    /**
+     * The card that {@link FeatureRowView} replaced, with the same sizes, built in code
+     */
+    private static final class NestedRow {
+        final View root;
+        final TextView title;
+        final TextView description;
+
+        NestedRow(Context context) {
+            FrameLayout card = new FrameLayout(context);
+            card.setPadding(dp(context, 8), dp(context, 8), dp(context, 8), dp(context, 8));
+            LinearLayout column = new LinearLayout(context);
+            column.setOrientation(LinearLayout.VERTICAL);
+            column.setPadding(dp(context, 8), dp(context, 8), dp(context, 8), dp(context, 8));
+
+            ImageView image = new ImageView(context);
+            image.setImageResource(android.R.drawable.ic_menu_gallery);
+            column.addView(image, new LinearLayout.LayoutParams(dp(context, 48), dp(context, 48)));
+
+            title = new TextView(context);
+            title.setMaxLines(1);
+            title.setEllipsize(TextUtils.TruncateAt.END);
+            title.setTextSize(TypedValue.COMPLEX_UNIT_SP, 16);
+            title.setTypeface(Typeface.DEFAULT_BOLD);
+            LinearLayout.LayoutParams titleParams = new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            titleParams.topMargin = dp(context, 8);
+            column.addView(title, titleParams);
+
+            description = new TextView(context);
+            description.setMaxLines(2);
+            description.setEllipsize(TextUtils.TruncateAt.END);
+            description.setTextSize(TypedValue.COMPLEX_UNIT_SP, 14);
+            LinearLayout.LayoutParams descriptionParams = new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            descriptionParams.topMargin = dp(context, 4);
+            column.addView(description, descriptionParams);
+
+            card.addView(column, new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            root = card;
+        }
+
+        private static int dp(Context context, int value) {
+            return Math.round(value * context.getResources().getDisplayMetrics().density);
+        }
+    }
+
+    @Test
+    public void benchmarkLayoutPass() throws Exception {
+        String[] titles = new String[TEXTS];
+        String[] descriptions = new String[TEXTS];
+        for (int i = 0; i < TEXTS; i++) {
+            titles[i] = "Feature " + i;
+            descriptions[i] = "Description of feature " + i + ", long enough to wrap onto a second line of the row";
+        }
+        FrameLayout parent = new FrameLayout(context);
+        FeatureRowView row = (FeatureRowView) LayoutInflater.from(context).inflate(R.layout.list_item, parent, false);
+        NestedRow nested = new NestedRow(context);
+        Benchmark benchmark = new Benchmark("FeatureRowView");
+
+        // New text each time, as when a recycled row is bound, so every pass measures text
+        Benchmark.Result single = benchmark.measure("layoutPass/FeatureRowView", 500, i -> {
+            row.setText(titles[i % TEXTS], descriptions[i % TEXTS]);
+            TestData.layOut(row);
+        });
+        Benchmark.Result card = benchmark.measure("layoutPass/nestedLayouts", 500, i -> {
+            nested.title.setText(titles[i % TEXTS]);
+            nested.description.setText(descriptions[i % TEXTS]);
+            TestData.layOut(nested.root);
+        });
+        for (int direction : new int[]{View.LAYOUT_DIRECTION_LTR, View.LAYOUT_DIRECTION_RTL}) {
+            row.setLayoutDirection(direction);
+            String label = direction == View.LAYOUT_DIRECTION_RTL ? "rtl" : "ltr";
+            benchmark.measure("layoutPass/FeatureRowView/" + label, 500, i -> {
+                row.setText(titles[i % TEXTS], descriptions[i % TEXTS]);
+                TestData.layOut(row);
+            });
+        }
+        benchmark.write();
+
+        assertTrue(single.nanosPerOp > 0 && card.nanosPerOp > 0);
+    }
+}
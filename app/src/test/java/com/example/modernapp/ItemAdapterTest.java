@@ -0,0 +1,189 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stable IDs and diffing of {@link ItemAdapter}, checked by counting binds in a list laid out on the JVM
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ItemAdapterTest {
+    private static final int LIST_HEIGHT = 1920;
+
+    private Context context;
+    private RecyclerView list;
+
+    /**
+     * Counts binds, which is what a submit should keep to the changed rows
+     */
+    private static final class CountingAdapter extends ItemAdapter {
+        int bindCount;
+
+        CountingAdapter(Context context, ItemColumns items) {
+            super(context, items);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+            bindCount++;
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    /**
+     * Notes when the adapter has applied a submit
+     */
+    private static final class UpdateObserver extends RecyclerView.AdapterDataObserver {
+        boolean updated;
+
+        @Override
+        public void onChanged() {
+            updated = true;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            updated = true;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            updated = true;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            updated = true;
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            updated = true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        list = new RecyclerView(context);
+        list.setLayoutManager(new LinearLayoutManager(context));
+        // Without change animations, an updated row is rebound in place exactly once
+        list.setItemAnimator(null);
+    }
+
+    private void layOutList() {
+        list.measure(View.MeasureSpec.makeMeasureSpec(TestData.ROW_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(LIST_HEIGHT, View.MeasureSpec.EXACTLY));
+        list.layout(0, 0, TestData.ROW_WIDTH, LIST_HEIGHT);
+    }
+
+    /**
+     * Runs the main looper until the diff computed in the background has been applied
+     */
+    private static void awaitUpdate(UpdateObserver observer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!observer.updated) {
+            assertTrue("diff wasn't applied", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+            ShadowLooper.idleMainLooper();
+        }
+    }
+
+    @Test
+    public void itemsWithoutIdsGetDistinctIds() {
+        List<DataManager.ItemModel> models = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            models.add(new DataManager.ItemModel(android.R.drawable.ic_menu_info_details, "Item " + i, "Description"));
+        }
+        ItemAdapter adapter = new ItemAdapter(context, models);
+
+        assertTrue(adapter.hasStableIds());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < adapter.getItemCount(); i++) {
+            long id = adapter.getItemId(i);
+            assertNotEquals(RecyclerView.NO_ID, id);
+            assertTrue("duplicate ID " + id, ids.add(id));
+        }
+    }
+
+    @Test
+    public void itemsWithoutIdsKeepTheirIdsWhenRowsShift() throws Exception {
+        List<DataManager.ItemModel> models = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            models.add(new DataManager.ItemModel(android.R.drawable.ic_menu_info_details, "Item " + i, "Description"));
+        }
+        CountingAdapter adapter = new CountingAdapter(context, ItemStore.fromList(models));
+        list.setAdapter(adapter);
+        layOutList();
+
+        // Insert one at the top; the rest are unchanged and must not be taken for one another
+        models.add(0, new DataManager.ItemModel(android.R.drawable.ic_menu_info_details, "New item", "Description"));
+        UpdateObserver observer = new UpdateObserver();
+        adapter.registerAdapterDataObserver(observer);
+        adapter.bindCount = 0;
+        long secondId = adapter.getItemId(1);
+        adapter.submitList(models);
+        awaitUpdate(observer);
+        layOutList();
+
+        assertEquals(1, adapter.bindCount);
+        assertEquals(secondId, adapter.getItemId(2));
+    }
+
+    @Test
+    public void updatingTenThousandItemsRebindsOnlyChangedRows() throws Exception {
+        final int count = 10_000;
+        CountingAdapter adapter = new CountingAdapter(context, TestData.items(count));
+        list.setAdapter(adapter);
+        layOutList();
+        int visibleRows = list.getChildCount();
+        assertTrue(visibleRows > 0 && visibleRows < count);
+
+        // Change every tenth title, on screen and off
+        ItemStore updated = new ItemStore(count);
+        ItemStore current = TestData.items(count);
+        for (int i = 0; i < count; i++) {
+            String title = i % 10 == 0 ? "Updated item " + i : current.getTitle(i);
+            updated.add(current.getId(i), current.getIconResource(i), title, current.getDescription(i));
+        }
+        UpdateObserver observer = new UpdateObserver();
+        adapter.registerAdapterDataObserver(observer);
+        adapter.bindCount = 0;
+        long start = System.nanoTime();
+        adapter.submitItems(updated);
+        awaitUpdate(observer);
+        long applyNanos = System.nanoTime() - start;
+        layOutList();
+
+        // Only the changed rows on screen are rebound; the others are bound when scrolled to
+        int changedVisibleRows = (visibleRows + 9) / 10;
+        assertEquals(changedVisibleRows, adapter.bindCount);
+
+        Benchmark benchmark = new Benchmark("ItemAdapterUpdate");
+        String label = "update/" + count;
+        benchmark.record(label, "visibleRows", visibleRows);
+        benchmark.record(label, "binds", adapter.bindCount);
+        benchmark.record(label, "diffAndApplyMillis", applyNanos / 1_000_000);
+        benchmark.write();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.modernapp;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Paging and prefix search of {@link ItemDatabase}, run against SQLite under Robolectric,
+ * with insert and query timings for 100k items written to build/benchmarks
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ItemDatabaseTest {
+    private static final int PAGE_SIZE = 50;
+
+    private ItemDatabase database;
+
+    @After
+    public void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    private ItemDatabase newDatabase(int count) {
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase("items.db");
+        database = new ItemDatabase(context, Collections.<DataManager.ItemModel>emptyList());
+        database.insertAll(models(count));
+        return database;
+    }
+
+    private static List<DataManager.ItemModel> models(int count) {
+        List<DataManager.ItemModel> models = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            models.add(new DataManager.ItemModel(android.R.drawable.ic_menu_info_details,
+                    "Item " + i, "Description of item " + i));
+        }
+        return models;
+    }
+
+    @Test
+    public void upperBoundIncrementsLastCodePoint() {
+        assertEquals("abd", ItemDatabase.prefixUpperBound("abc"));
+        // Past the last char of the Basic Multilingual Plane comes the first supplementary character
+        assertEquals("a\uD800\uDC00", ItemDatabase.prefixUpperBound("a\uFFFF"));
+        assertEquals("a\uD83D\uDE01", ItemDatabase.prefixUpperBound("a\uD83D\uDE00"));
+        assertEquals("\uE000", ItemDatabase.prefixUpperBound("\uD7FF"));
+        assertEquals("b", ItemDatabase.prefixUpperBound("a" + new String(Character.toChars(Character.MAX_CODE_POINT))));
+        assertNull(ItemDatabase.prefixUpperBound(""));
+    }
+
+    @Test
+    public void prefixSearchFindsTitlesWithSupplementaryCharacters() {
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase("items.db");
+        database = new ItemDatabase(context, Collections.<DataManager.ItemModel>emptyList());
+        List<DataManager.ItemModel> models = new ArrayList<>();
+        for (String title : new String[]{"Cas", "Cat", "Cat \uD83D\uDE00", "Cat\uFFFF", "Cat\uD83D\uDE00s", "Cau"}) {
+            models.add(new DataManager.ItemModel(android.R.drawable.ic_menu_info_details, title, ""));
+        }
+        database.insertAll(models);
+
+        ItemStore found = database.findByTitlePrefix("Cat", 10);
+        assertEquals(4, found.size());
+        ItemStore emoji = database.findByTitlePrefix("Cat\uD83D\uDE00", 10);
+        assertEquals(1, emoji.size());
+        assertEquals("Cat\uD83D\uDE00s", emoji.getTitle(0));
+        assertEquals(models.size(), database.findByTitlePrefix("", 10).size());
+    }
+
+    @Test
+    public void pagesMatchInsertionOrderWhateverOrderTheyAreLoaded() {
+        int count = 1_000;
+        newDatabase(count);
+        assertEquals(count, database.getCount());
+
+        List<Integer> offsets = new ArrayList<>();
+        for (int offset = 0; offset < count; offset += PAGE_SIZE) {
+            offsets.add(offset);
+        }
+        // Jumps land between known boundaries, and at unaligned offsets too
+        Collections.shuffle(offsets, new Random(1));
+        offsets.addAll(Arrays.asList(7, 333, 990, 0));
+        for (int offset : offsets) {
+            ItemStore page = database.load(offset, PAGE_SIZE);
+            assertEquals(Math.min(PAGE_SIZE, count - offset), page.size());
+            for (int i = 0; i < page.size(); i++) {
+                assertEquals("Item " + (offset + i), page.getTitle(i));
+            }
+        }
+        assertEquals(0, database.load(count, PAGE_SIZE).size());
+    }
+
+    @Test
+    public void pagesStayValidAfterAppending() {
+        newDatabase(120);
+        assertEquals(20, database.load(100, PAGE_SIZE).size());
+
+        database.insertAll(models(200).subList(120, 200));
+        ItemStore page = database.load(100, PAGE_SIZE);
+        assertEquals(PAGE_SIZE, page.size());
+        assertEquals("Item 100", page.getTitle(0));
+        assertEquals("Item 170", database.load(170, PAGE_SIZE).getTitle(0));
+    }
+
+    @Test
+    public void benchmarkHundredThousandItems() throws Exception {
+        int count = 100_000;
+        Benchmark benchmark = new Benchmark("ItemDatabase");
+        List<DataManager.ItemModel> models = models(count);
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase("items.db");
+        database = new ItemDatabase(context, Collections.<DataManager.ItemModel>emptyList());
+
+        long start = System.nanoTime();
+        database.insertAll(models);
+        benchmark.record("insert/" + count, "millis", (System.nanoTime() - start) / 1_000_000);
+
+        // Scrolling through every page, as a list flung to the end would
+        start = System.nanoTime();
+        for (int offset = 0; offset < count; offset += PAGE_SIZE) {
+            database.load(offset, PAGE_SIZE);
+        }
+        benchmark.record("scanPages/" + count, "millis", (System.nanoTime() - start) / 1_000_000);
+
+        int last = count - PAGE_SIZE;
+        benchmark.measure("loadLastPage/" + count, 20, i -> assertEquals(PAGE_SIZE, database.load(last, PAGE_SIZE).size()));
+        benchmark.measure("loadMiddlePage/" + count, 20,
+                i -> assertEquals(PAGE_SIZE, database.load(count / 2 + 7, PAGE_SIZE).size()));
+        benchmark.measure("findByTitlePrefix/" + count, 20,
+                i -> assertTrue(database.findByTitlePrefix("Item 9999", 20).size() > 0));
+        benchmark.measure("count/" + count, 20, i -> assertEquals(count, database.getCount()));
+        benchmark.write();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.modernapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ItemStoreTest {
+    private static final int ITEMS = 100_000;
+    // Descriptions repeat, as they do for items of a few kinds
+    private static final int DISTINCT_DESCRIPTIONS = 50;
+
+    @Test
+    public void roundTripsThroughList() {
+        List<DataManager.ItemModel> items = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            items.add(new DataManager.ItemModel(i + 1, i % 7, title(i), description(i)));
+        }
+        ItemStore store = ItemStore.fromList(items);
+
+        assertEquals(items.size(), store.size());
+        List<DataManager.ItemModel> copy = store.toList();
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(items.get(i).getId(), copy.get(i).getId());
+            assertEquals(items.get(i).getIconResource(), copy.get(i).getIconResource());
+            assertEquals(items.get(i).getTitle(), copy.get(i).getTitle());
+            assertEquals(items.get(i).getDescription(), copy.get(i).getDescription());
+        }
+    }
+
+    @Test
+    public void unstoredItemsKeepTheirIdsAcrossStores() {
+        List<DataManager.ItemModel> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new DataManager.ItemModel(i % 7, title(i), description(i)));
+        }
+        ItemStore store = ItemStore.fromList(items);
+        // Rows shift when an item is inserted ahead of the others
+        items.add(0, new DataManager.ItemModel(1, "New item", "Description"));
+        ItemStore shifted = ItemStore.fromList(items);
+
+        for (int i = 0; i < store.size(); i++) {
+            assertTrue(store.getId(i) < DataManager.ItemModel.NO_ID);
+            assertEquals(store.getId(i), shifted.getId(i + 1));
+            assertTrue(shifted.getId(0) != store.getId(i));
+        }
+        // Still unstored once copied back out
+        assertEquals(DataManager.ItemModel.NO_ID, store.toList().get(0).getId());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsAddAfterTrim() {
+        ItemStore store = new ItemStore(1);
+        store.trimToSize();
+        store.add(1, 0, "Title", "Description");
+    }
+
+    @Test
+    public void heapFootprintBelowModelList() throws Exception {
+        // Each row's strings are new objects, as when read from a cursor
+        long before = Benchmark.usedHeapAfterGc();
+        List<DataManager.ItemModel> list = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            list.add(new DataManager.ItemModel(i + 1, i % 7, title(i), description(i)));
+        }
+        long listBytes = Benchmark.usedHeapAfterGc() - before;
+        assertEquals(ITEMS, list.size());
+        list = null;
+
+        before = Benchmark.usedHeapAfterGc();
+        ItemStore store = new ItemStore(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            store.add(i + 1, i % 7, title(i), description(i));
+        }
+        store.trimToSize();
+        long storeBytes = Benchmark.usedHeapAfterGc() - before;
+        assertEquals(ITEMS, store.size());
+
+        Benchmark benchmark = new Benchmark("ItemStore");
+        String label = "footprint/" + ITEMS;
+        benchmark.record(label, "modelListBytesPerItem", (double) listBytes / ITEMS);
+        benchmark.record(label, "storeBytesPerItem", (double) storeBytes / ITEMS);
+        benchmark.write();
+        // Saves the per-item object and the repeated descriptions; the titles cost the same
+        assertTrue("store " + storeBytes + " bytes, list " + listBytes + " bytes", storeBytes < listBytes * 3 / 4);
+    }
+
+    private static String title(int i) {
+        return "Item " + i;
+    }
+
+    private static String description(int i) {
+        return new StringBuilder("Description shared by items of kind ").append(i % DISTINCT_DESCRIPTIONS).toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * Dropping the rows of {@link ListViewPool} when the configuration changes
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ListViewPoolTest {
+    private Context context;
+    private RecyclerView list;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        list = new RecyclerView(context);
+    }
+
+    @After
+    public void tearDown() {
+        // The pool is process-wide; leave it empty for the next test
+        ListViewPool.onConfigurationChanged(context);
+    }
+
+    @Test
+    public void configurationChangeEmptiesPool() {
+        RecyclerView.RecycledViewPool oldPool = ListViewPool.get();
+        ListViewPool.prewarm(list, new ItemAdapter(context, TestData.items(10)), ListViewPool.VIEW_TYPE_ITEM, 4);
+        assertEquals(4, oldPool.getRecycledViewCount(ListViewPool.VIEW_TYPE_ITEM));
+
+        ListViewPool.onConfigurationChanged(context);
+
+        // Lists of the old screen may still recycle into the old pool, but nobody takes rows from it
+        assertEquals(0, oldPool.getRecycledViewCount(ListViewPool.VIEW_TYPE_ITEM));
+        assertNotSame(oldPool, ListViewPool.get());
+        assertEquals(0, ListViewPool.get().getRecycledViewCount(ListViewPool.VIEW_TYPE_ITEM));
+    }
+
+    @Test
+    public void configurationChangeInflatesWithNewContext() {
+        View before = ListViewPool.inflate(context, ListViewPool.VIEW_TYPE_ITEM, list);
+        ListViewPool.onConfigurationChanged(context);
+        View after = ListViewPool.inflate(context, ListViewPool.VIEW_TYPE_ITEM, list);
+
+        assertNotSame(before.getContext(), after.getContext());
+    }
+}
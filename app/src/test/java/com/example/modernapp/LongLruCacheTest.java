@@ -0,0 +1,108 @@
+package com.example.modernapp;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LongLruCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        LongLruCache<String> cache = new LongLruCache<>(3);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        // Reading 1 makes 2 the least recently used
+        assertEquals("one", cache.get(1));
+        cache.put(4, "four");
+
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals("three", cache.get(3));
+        assertEquals("four", cache.get(4));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void putReplacesValue() {
+        LongLruCache<String> cache = new LongLruCache<>(2);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(1, "uno");
+        cache.put(3, "three");
+
+        assertEquals("uno", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void zeroSizeKeepsNothing() {
+        LongLruCache<String> cache = new LongLruCache<>(0);
+        cache.put(1, "one");
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        LongLruCache<String> cache = new LongLruCache<>(4);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.clear();
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+        cache.put(3, "three");
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    public void matchesReferenceModel() {
+        Random random = new Random(1);
+        for (int maxSize : new int[]{1, 7, 64, 200}) {
+            LongLruCache<Long> cache = new LongLruCache<>(maxSize);
+            Map<Long, Long> model = new LinkedHashMap<Long, Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                    return size() > maxSize;
+                }
+            };
+            for (int step = 0; step < 100_000; step++) {
+                // Keys from a range a few times the size, some of them negative or far apart
+                long key = (random.nextInt(maxSize * 3) - maxSize) * (random.nextBoolean() ? 1 : 1L << 33);
+                if (random.nextInt(3) == 0) {
+                    long value = random.nextLong();
+                    cache.put(key, value);
+                    model.put(key, value);
+                } else {
+                    assertEquals(model.get(key), cache.get(key));
+                }
+                assertEquals(model.size(), cache.size());
+            }
+        }
+    }
+
+    @Test
+    public void lookupAllocatesNothing() throws Exception {
+        LongLruCache<String> cache = new LongLruCache<>(200);
+        for (long id = 1; id <= 200; id++) {
+            cache.put(id, "row " + id);
+        }
+        Benchmark benchmark = new Benchmark("LongLruCache");
+        Benchmark.Result hit = benchmark.measure("getHit", 10_000, i -> cache.get(1 + i % 200));
+        Benchmark.Result miss = benchmark.measure("getMiss", 10_000, i -> cache.get(1_000 + i));
+        benchmark.write();
+
+        // Within rounding of the measurement itself; boxing keys would be 16 bytes each
+        assertTrue("bytes per lookup: " + hit.bytesPerOp, hit.bytesPerOp < 1);
+        assertTrue("bytes per lookup: " + miss.bytesPerOp, miss.bytesPerOp < 1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Rows bound by the main screen's list, laid out in the real activity layout
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MainActivityTest {
+    private static final int SCREEN_HEIGHT = 1920;
+    // From more than a screenful up
+    private static final int[] FEATURE_COUNTS = {100, 1_000, 10_000, 100_000};
+
+    /**
+     * Counts binds, which a recycling list keeps to the rows on screen
+     */
+    private static final class CountingAdapter extends FeatureAdapter {
+        int bindCount;
+
+        CountingAdapter(Context context, List<Feature> features) {
+            super(context, features, null);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull FeatureViewHolder holder, int position, @NonNull List<Object> payloads) {
+            bindCount++;
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    @Test
+    public void boundRowsStayBoundedAsFeaturesGrow() throws Exception {
+        MainActivity activity = Robolectric.buildActivity(MainActivity.class).setup().get();
+        View decorView = activity.getWindow().getDecorView();
+        RecyclerView list = activity.findViewById(R.id.featuresRecyclerView);
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setIsolateViewTypes(false)
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
+
+        Benchmark benchmark = new Benchmark("MainActivityRows");
+        int[] binds = new int[FEATURE_COUNTS.length];
+        for (int i = 0; i < FEATURE_COUNTS.length; i++) {
+            CountingAdapter adapter = new CountingAdapter(activity, TestData.features(FEATURE_COUNTS[i]));
+            list.setAdapter(new ConcatAdapter(config,
+                    new HeaderAdapter(activity, ListViewPool.VIEW_TYPE_WELCOME_HEADER), adapter));
+            decorView.measure(View.MeasureSpec.makeMeasureSpec(TestData.ROW_WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(SCREEN_HEIGHT, View.MeasureSpec.EXACTLY));
+            decorView.layout(0, 0, TestData.ROW_WIDTH, SCREEN_HEIGHT);
+
+            binds[i] = adapter.bindCount;
+            benchmark.record("features/" + FEATURE_COUNTS[i], "boundRows", binds[i]);
+            // The list is only as tall as the screen, not as tall as all its rows
+            assertTrue(list.getHeight() <= SCREEN_HEIGHT);
+        }
+        benchmark.write();
+
+        // Only the rows on screen are bound, however many features there are
+        assertTrue("bound " + binds[0] + " of " + FEATURE_COUNTS[0], binds[0] < FEATURE_COUNTS[0]);
+        for (int i = 1; i < binds.length; i++) {
+            assertEquals("features/" + FEATURE_COUNTS[i], binds[0], binds[i]);
+        }
+    }
+}
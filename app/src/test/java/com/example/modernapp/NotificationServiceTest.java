@@ -0,0 +1,364 @@
+package com.example.modernapp;
+
+import android.app.Activity;
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.core.app.NotificationCompat;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Rate limiting and grouping of {@link NotificationService}, posting to a recording
+ * poster instead of the system, and the shared instance the activities use. Flushes
+ * run on the real dispatch thread, so the tests wait for the queue to drain.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NotificationServiceTest {
+    private static final int SUMMARY_ID = 1000;
+    private static final long COALESCE_WINDOW_MS = 10;
+    private static final int MAX_QUEUED = 64;
+    // Far more low value notifications than the rate limit lets through, with an alert among them now and then
+    private static final int FLOOD_COUNT = 4_000;
+    private static final int FLOOD_MAX_PER_SECOND = 200;
+    private static final int HIGH_PRIORITY_EVERY = 40;
+
+    private Context context;
+    private RecordingPoster poster;
+
+    /**
+     * Records every post with the time it was made
+     */
+    private static final class RecordingPoster implements NotificationService.Poster {
+        // Posts of notifications other than the summary, by ID
+        final Map<Integer, Long> postedNanos = new HashMap<>();
+        final List<Notification> summaries = new ArrayList<>();
+        int postCount;
+        int duplicateCount;
+
+        @Override
+        public synchronized void notify(int id, Notification notification) {
+            postCount++;
+            if (id == SUMMARY_ID) {
+                summaries.add(notification);
+            } else if (postedNanos.put(id, System.nanoTime()) != null) {
+                duplicateCount++;
+            }
+        }
+
+        @Override
+        public synchronized void cancelAll() {
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        poster = new RecordingPoster();
+    }
+
+    private NotificationService newService(int maxPerSecond) {
+        return new NotificationService(context, maxPerSecond, COALESCE_WINDOW_MS, MAX_QUEUED, poster);
+    }
+
+    /**
+     * Waits until every notification requested is either posted or dropped
+     */
+    private static void awaitSettled(NotificationService service, long requested, long timeoutMs)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (service.getDeliveredCount() + service.getDroppedCount() < requested) {
+            assertTrue("queue didn't drain, " + service.getQueuedCount() + " left",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void overBudgetBurstStaysQueuedAndSummaryKeepsCounting() throws Exception {
+        NotificationService service = newService(10);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(service.showNotification("Title " + i, "Message " + i));
+        }
+        awaitSettled(service, ids.size(), 10_000);
+
+        synchronized (poster) {
+            assertEquals(0, service.getDroppedCount());
+            assertEquals(0, poster.duplicateCount);
+            for (int id : ids) {
+                assertTrue("notification " + id + " was never posted", poster.postedNanos.containsKey(id));
+            }
+            // The burst took several flushes, and the last summary counts all of them
+            assertTrue(poster.summaries.size() > 1);
+            Notification summary = poster.summaries.get(poster.summaries.size() - 1);
+            assertEquals(context.getResources().getQuantityString(
+                    R.plurals.notification_summary_title, ids.size(), ids.size()),
+                    String.valueOf(summary.extras.getCharSequence(Notification.EXTRA_TITLE)));
+        }
+    }
+
+    @Test
+    public void fixedSlotReplacesQueuedNotification() throws Exception {
+        NotificationService service = newService(NotificationService.DEFAULT_MAX_PER_SECOND);
+        service.showNotification(NotificationService.SETTINGS_UPDATED_ID, NotificationService.Priority.LOW,
+                "Settings Updated", "First save");
+        service.showNotification(NotificationService.SETTINGS_UPDATED_ID, NotificationService.Priority.LOW,
+                "Settings Updated", "Second save");
+        assertEquals(1, service.getQueuedCount());
+        awaitSettled(service, 1, 5_000);
+        Thread.sleep(5 * COALESCE_WINDOW_MS);
+
+        synchronized (poster) {
+            assertEquals(1, poster.postCount);
+            assertTrue(poster.postedNanos.containsKey(NotificationService.SETTINGS_UPDATED_ID));
+        }
+    }
+
+    @Test
+    public void tenThousandNotifications() throws Exception {
+        final int count = 10_000;
+        final int maxPerSecond = 2_000;
+        NotificationService service = newService(maxPerSecond);
+        Map<Integer, Long> requestedNanos = new HashMap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int id = service.showNotification("Title " + i, "Message " + i);
+            requestedNanos.put(id, System.nanoTime());
+            assertTrue(service.getQueuedCount() <= MAX_QUEUED);
+            // Offered faster than the rate limit, but not all at once
+            if (i % 8 == 7) {
+                Thread.sleep(1);
+            }
+        }
+        awaitSettled(service, count, 30_000);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = new long[count];
+        int posted = 0;
+        synchronized (poster) {
+            assertEquals(0, poster.duplicateCount);
+            assertEquals(service.getDeliveredCount(), poster.postedNanos.size());
+            for (Map.Entry<Integer, Long> entry : poster.postedNanos.entrySet()) {
+                latencies[posted++] = entry.getValue() - requestedNanos.get(entry.getKey());
+            }
+            // Summaries count against the limit too; the bucket starts full
+            assertTrue(poster.postCount <= maxPerSecond * (elapsedSeconds + 1));
+        }
+        long p99Millis = Benchmark.percentile(latencies, posted, 99) / 1_000_000;
+        // A posted notification waited at most for a full queue to drain ahead of it
+        assertTrue("p99 latency " + p99Millis + " ms", p99Millis < 1_000);
+        assertTrue(service.getDeliveredCount() > 0);
+
+        Benchmark benchmark = new Benchmark("NotificationService");
+        String label = "flood/" + count;
+        benchmark.record(label, "delivered", service.getDeliveredCount());
+        benchmark.record(label, "dropped", service.getDroppedCount());
+        benchmark.record(label, "dispatches", poster.postCount);
+        benchmark.record(label, "summaries", poster.summaries.size());
+        benchmark.record(label, "latencyP50Millis", Benchmark.percentile(latencies, posted, 50) / 1_000_000);
+        benchmark.record(label, "latencyP99Millis", p99Millis);
+        benchmark.record(label, "latencyMaxMillis", Benchmark.percentile(latencies, posted, 100) / 1_000_000);
+        benchmark.write();
+    }
+
+    @Test
+    public void buildCostWithTemplate() throws Exception {
+        NotificationService service = newService(NotificationService.DEFAULT_MAX_PER_SECOND);
+        // Nothing is queued, so calling the dispatch thread's template() here doesn't race it
+        NotificationService.Template template = service.template(MainActivity.class);
+        assertSame(template, service.template(MainActivity.class));
+        NotificationService.Priority priority = NotificationService.Priority.DEFAULT;
+
+        Benchmark benchmark = new Benchmark("NotificationBuild");
+        Benchmark.Result cached = benchmark.measure("template", 2_000, i -> service.template(MainActivity.class)
+                .newBuilder(context, priority, "Title " + i, "Message " + i).build());
+        // What each notification cost before templates: a new Intent, PendingIntent and builder
+        Benchmark.Result fromScratch = benchmark.measure("fromScratch", 2_000, i -> {
+            Intent intent = new Intent(context, MainActivity.class);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            PendingIntent pendingIntent = PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+            new NotificationCompat.Builder(context, priority.channelId)
+                    .setSmallIcon(R.mipmap.ic_launcher)
+                    .setContentTitle("Title " + i)
+                    .setContentText("Message " + i)
+                    .setPriority(priority.compatPriority)
+                    .setContentIntent(pendingIntent)
+                    .setAutoCancel(true)
+                    .build();
+        });
+        benchmark.write();
+
+        // Every notification opening the activity shares one PendingIntent
+        Notification notification = template.newBuilder(context, priority, "Title", "Message").build();
+        assertSame(template.contentIntent, notification.contentIntent);
+        assertTrue(cached.nanosPerOp > 0 && fromScratch.nanosPerOp > 0);
+    }
+
+    @Test
+    public void activityLaunchesShareChannelsAndDontLeak() throws Exception {
+        final int launches = 20;
+        NotificationService service = NotificationService.getInstance(context);
+        // Other tests may have posted through the shared instance already
+        long settled = service.getDeliveredCount() + service.getDroppedCount();
+        List<WeakReference<Activity>> destroyed = new ArrayList<>();
+        for (int i = 0; i < launches; i++) {
+            ActivityController<? extends Activity> controller = i % 2 == 0
+                    ? Robolectric.buildActivity(SettingsActivity.class).setup()
+                    : Robolectric.buildActivity(ProfileActivity.class).setup();
+            Activity activity = controller.get();
+            assertSame(service, NotificationService.getInstance(activity));
+            NotificationService.getInstance(activity).showNotification("Title " + i, "Message " + i);
+            controller.pause().stop().destroy();
+            destroyed.add(new WeakReference<>(activity));
+        }
+        // The default rate posts a few a second
+        awaitSettled(service, settled + launches, 30_000);
+        assertEquals(1, service.getChannelSetupCount());
+
+        // The service holds only the application context, so nothing keeps the activities alive
+        long deadline = System.currentTimeMillis() + 10_000;
+        for (WeakReference<Activity> reference : destroyed) {
+            while (reference.get() != null) {
+                assertTrue("destroyed activity still reachable", System.currentTimeMillis() < deadline);
+                System.gc();
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    /**
+     * Floods a service with notifications of one priority, showing a high priority one
+     * every so often, and waits for all of them to be posted or dropped
+     *
+     * @return the latencies of the high priority notifications, in nanoseconds
+     */
+    private long[] floodWithHighPriority(NotificationService service, NotificationService.Priority floodPriority)
+            throws InterruptedException {
+        Map<Integer, Long> requestedNanos = new HashMap<>();
+        int requested = 0;
+        for (int i = 0; i < FLOOD_COUNT; i++) {
+            service.showNotification(floodPriority, "Settings Updated", "Change " + i);
+            requested++;
+            if (i % HIGH_PRIORITY_EVERY == HIGH_PRIORITY_EVERY - 1) {
+                // Timed before the call, since the dispatch thread may post it before the call returns
+                long now = System.nanoTime();
+                requestedNanos.put(service.showNotification(NotificationService.Priority.HIGH, "Alert", "Alert " + i),
+                        now);
+                requested++;
+            }
+            assertTrue(service.getQueuedCount() <= MAX_QUEUED);
+            if (i % 4 == 3) {
+                Thread.sleep(1);
+            }
+        }
+        awaitSettled(service, requested, 30_000);
+
+        long[] latencies = new long[requestedNanos.size()];
+        int posted = 0;
+        synchronized (poster) {
+            for (Map.Entry<Integer, Long> entry : requestedNanos.entrySet()) {
+                Long postedNanos = poster.postedNanos.get(entry.getKey());
+                assertTrue("alert " + entry.getKey() + " was never posted", postedNanos != null);
+                latencies[posted++] = postedNanos - entry.getValue();
+            }
+        }
+        return latencies;
+    }
+
+    @Test
+    public void highPriorityLatencyStaysBoundedDuringFloods() throws Exception {
+        // Ten tokens' wait, against the 320 ms a full queue takes to drain at this rate
+        long budgetNanos = TimeUnit.SECONDS.toNanos(10) / FLOOD_MAX_PER_SECOND;
+        Benchmark benchmark = new Benchmark("NotificationPriority");
+        for (NotificationService.Priority floodPriority
+                : new NotificationService.Priority[]{NotificationService.Priority.LOW,
+                NotificationService.Priority.DEFAULT}) {
+            poster = new RecordingPoster();
+            NotificationService service = newService(FLOOD_MAX_PER_SECOND);
+            long[] latencies = floodWithHighPriority(service, floodPriority);
+            int count = latencies.length;
+            long p99Nanos = Benchmark.percentile(latencies, count, 99);
+
+            String label = "flood/" + floodPriority;
+            benchmark.record(label, "delivered", service.getDeliveredCount());
+            benchmark.record(label, "dropped", service.getDroppedCount());
+            benchmark.record(label, "queued", service.getQueuedCount());
+            benchmark.record(label, "highLatencyP50Micros", Benchmark.percentile(latencies, count, 50) / 1_000);
+            benchmark.record(label, "highLatencyP99Micros", p99Nanos / 1_000);
+            benchmark.record(label, "highLatencyMaxMicros", Benchmark.percentile(latencies, count, 100) / 1_000);
+
+            // The flood outran the rate limit, and only the flood paid for it
+            assertTrue(label, service.getDroppedCount() > 0);
+            assertEquals(label, 0, poster.duplicateCount);
+            assertTrue(label + " p99 " + p99Nanos / 1_000 + " us", p99Nanos < budgetNanos);
+        }
+        benchmark.write();
+    }
+
+    @Test
+    public void remindersArePostedBeforeReturningInTheirOwnSlots() {
+        NotificationService service = newService(10);
+        List<ReminderStore.Reminder> reminders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            reminders.add(new ReminderStore.Reminder(i, 0, "Reminder " + i, "Message"));
+        }
+        assertTrue(service.showReminders(reminders));
+
+        synchronized (poster) {
+            assertEquals(3, poster.postCount);
+            for (ReminderStore.Reminder reminder : reminders) {
+                assertTrue(poster.postedNanos.containsKey(NotificationService.reminderSlot(reminder.id)));
+            }
+            assertTrue(poster.summaries.isEmpty());
+        }
+        // Shown again, as after process death, a reminder replaces itself
+        assertTrue(service.showReminders(reminders.subList(0, 1)));
+        synchronized (poster) {
+            assertEquals(1, poster.duplicateCount);
+        }
+    }
+
+    @Test
+    public void remindersBeyondRateLimitCollapseIntoSummary() {
+        final int maxPerSecond = 10;
+        // More than the queue holds, all due at once
+        final int count = 4 * MAX_QUEUED;
+        NotificationService service = newService(maxPerSecond);
+        List<ReminderStore.Reminder> reminders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reminders.add(new ReminderStore.Reminder(i, 0, "Reminder " + i, "Message"));
+        }
+        assertTrue(service.showReminders(reminders));
+
+        assertEquals(count, service.getDeliveredCount());
+        assertEquals(0, service.getDroppedCount());
+        synchronized (poster) {
+            assertEquals(maxPerSecond, poster.postCount);
+            assertEquals(1, poster.summaries.size());
+            assertEquals(context.getResources().getQuantityString(
+                    R.plurals.notification_summary_title, count, count),
+                    String.valueOf(poster.summaries.get(0).extras.getCharSequence(Notification.EXTRA_TITLE)));
+        }
+    }
+}
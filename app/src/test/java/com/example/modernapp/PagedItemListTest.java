@@ -0,0 +1,220 @@
+package com.example.modernapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PagedItemListTest {
+    private static final int ITEMS = 100_000;
+    // The default window of 8 pages of 50 items, with room for the list itself
+    private static final long HEAP_BUDGET_BYTES = 256 * 1024;
+
+    /**
+     * Source generating items on demand, as a database would read them, and recording loads
+     */
+    private static class FakeItemSource implements ItemSource {
+        final int count;
+        // Sized up front so recording a load allocates nothing
+        final BitSet loadedOffsets;
+        int loads;
+
+        FakeItemSource(int count) {
+            this.count = count;
+            loadedOffsets = new BitSet(count);
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public synchronized ItemStore load(int offset, int limit) {
+            loadedOffsets.set(offset);
+            loads++;
+            int end = Math.min(count, offset + limit);
+            ItemStore page = new ItemStore(end - offset);
+            for (int i = offset; i < end; i++) {
+                page.add(i + 1, i % 7, "Item " + i, "Description of item " + i);
+            }
+            page.trimToSize();
+            return page;
+        }
+    }
+
+    /**
+     * Executor holding tasks until they are run, like a busy background thread
+     */
+    private static final class QueuedExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    @Test
+    public void readsEveryItemFromItsPage() {
+        FakeItemSource source = new FakeItemSource(1_234);
+        PagedItemList list = new PagedItemList(source, source.count, Runnable::run, Runnable::run);
+
+        assertEquals(1_234, list.size());
+        Random random = new Random(3);
+        for (int n = 0; n < 2_000; n++) {
+            int i = random.nextInt(list.size());
+            assertEquals(i + 1, list.getId(i));
+            assertEquals(i % 7, list.getIconResource(i));
+            assertEquals("Item " + i, list.getTitle(i));
+            assertEquals("Description of item " + i, list.getDescription(i));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndexPastEnd() {
+        new PagedItemList(new FakeItemSource(10), 10, Runnable::run, Runnable::run).getTitle(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWindowWithoutRoomForCurrentPage() {
+        new PagedItemList(new FakeItemSource(10), 10, Runnable::run, Runnable::run, 10, 2, 2);
+    }
+
+    @Test
+    public void readsPlaceholdersWithoutLoadingOnCallingThread() {
+        FakeItemSource source = new FakeItemSource(1_000);
+        QueuedExecutor executor = new QueuedExecutor();
+        QueuedExecutor mainThread = new QueuedExecutor();
+        PagedItemList list = new PagedItemList(source, 1_000, executor, mainThread, 50, 8, 2);
+        List<int[]> loadedRanges = new ArrayList<>();
+        list.setOnPageLoadedListener((positionStart, itemCount) ->
+                loadedRanges.add(new int[]{positionStart, itemCount}));
+
+        // Nothing is read from the source until the background thread runs
+        assertEquals("", list.getTitle(500));
+        assertEquals("", list.getDescription(500));
+        assertEquals(0, list.getIconResource(500));
+        assertTrue(list.getId(500) != list.getId(501));
+        assertEquals(0, source.loads);
+        assertEquals(3, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(3, source.loads);
+        // The listener is only told on its own executor
+        assertTrue(loadedRanges.isEmpty());
+        mainThread.runAll();
+        assertEquals(3, loadedRanges.size());
+        assertArrayEquals(new int[]{500, 50}, loadedRanges.get(0));
+        assertEquals("Item 500", list.getTitle(500));
+        assertEquals(501, list.getId(500));
+
+        // Once replaced, the listener is no longer told
+        list.setOnPageLoadedListener(null);
+        list.getTitle(0);
+        executor.runAll();
+        mainThread.runAll();
+        assertEquals(3, loadedRanges.size());
+        assertEquals("Item 0", list.getTitle(0));
+    }
+
+    @Test
+    public void prefetchesInScrollDirectionAndLoadsEachPageOnce() {
+        FakeItemSource source = new FakeItemSource(1_000);
+        QueuedExecutor executor = new QueuedExecutor();
+        PagedItemList list = new PagedItemList(source, 1_000, executor, Runnable::run, 50, 8, 2);
+
+        list.getTitle(500);
+        assertEquals(0, source.loads);
+        assertEquals(3, executor.tasks.size());
+        executor.runAll();
+        assertEquals(3, source.loads);
+        assertTrue(source.loadedOffsets.get(500));
+        assertTrue(source.loadedOffsets.get(550));
+        assertTrue(source.loadedOffsets.get(600));
+
+        // Pages already prefetched are read without another load
+        for (int i = 500; i < 650; i++) {
+            list.getTitle(i);
+        }
+        executor.runAll();
+        assertEquals(5, source.loads);
+
+        // Scrolling back prefetches the pages before
+        list.getTitle(499);
+        executor.runAll();
+        assertTrue(source.loadedOffsets.get(400));
+        assertTrue(source.loadedOffsets.get(350));
+    }
+
+    @Test
+    public void failedPageIsLoadedAgainWhenNextRead() {
+        FakeItemSource source = new FakeItemSource(100) {
+            boolean failed;
+
+            @Override
+            public synchronized ItemStore load(int offset, int limit) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("disk error");
+                }
+                return super.load(offset, limit);
+            }
+        };
+        QueuedExecutor executor = new QueuedExecutor();
+        PagedItemList list = new PagedItemList(source, 100, executor, Runnable::run, 50, 2, 1);
+
+        list.getTitle(0);
+        try {
+            executor.tasks.remove(0).run();
+        } catch (IllegalStateException expected) {
+            // Thrown on the background thread, as the executor would report it
+        }
+        executor.runAll();
+        assertEquals("", list.getTitle(0));
+        executor.runAll();
+        assertEquals("Item 0", list.getTitle(0));
+    }
+
+    @Test
+    public void scrollingHundredThousandItemsStaysWithinHeapBudget() throws Exception {
+        FakeItemSource source = new FakeItemSource(ITEMS);
+        long before = Benchmark.usedHeapAfterGc();
+        PagedItemList list = new PagedItemList(source, source.count, Runnable::run, Runnable::run);
+        long allocatedBefore = Benchmark.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITEMS; i++) {
+            assertEquals(i + 1, list.getId(i));
+            list.getTitle(i);
+            list.getDescription(i);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = Benchmark.allocatedBytes() - allocatedBefore;
+        long retained = Benchmark.usedHeapAfterGc() - before;
+        assertEquals(ITEMS - 1, list.getId(ITEMS - 2));
+
+        // Each page was loaded once, either ahead of the read position or on demand
+        assertEquals(ITEMS / PagedItemList.DEFAULT_PAGE_SIZE, source.loads);
+
+        Benchmark benchmark = new Benchmark("PagedItemList");
+        String label = "scroll/" + ITEMS;
+        benchmark.record(label, "retainedBytes", retained);
+        benchmark.record(label, "nanosPerItem", (double) nanos / ITEMS);
+        benchmark.record(label, "bytesAllocatedPerItem", allocatedBefore < 0 ? -1 : (double) allocated / ITEMS);
+        benchmark.write();
+        assertTrue("retained " + retained + " bytes", retained < HEAP_BUDGET_BYTES);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.modernapp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReminderSchedulerTest {
+    private static final long TICK = 1000;
+    private static final long WINDOW = 60_000;
+    // On a window boundary, so alarm times are easy to read
+    private static final long START = 1_700_000_040_000L;
+    private static final long DAY = 24 * 3600 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File storeFile;
+    private FakeClock clock;
+    private RecordingPlatform platform;
+
+    private static final class FakeClock implements Clock {
+        long now = START;
+
+        @Override
+        public long currentTimeMillis() {
+            return now;
+        }
+    }
+
+    private static final class RecordingPlatform implements ReminderScheduler.Platform {
+        final List<Long> alarms = new ArrayList<>();
+        final List<ReminderStore.Reminder> delivered = new ArrayList<>();
+        long alarmAt = -1;
+        int cancelCount;
+        // Posting fails while set, as when the system refuses the notification
+        boolean failing;
+
+        @Override
+        public void setAlarm(long atMillis, long windowMillis) {
+            assertEquals(WINDOW, windowMillis);
+            alarms.add(atMillis);
+            alarmAt = atMillis;
+        }
+
+        @Override
+        public void cancelAlarm() {
+            cancelCount++;
+            alarmAt = -1;
+        }
+
+        @Override
+        public boolean deliver(List<ReminderStore.Reminder> reminders) {
+            assertTrue(!reminders.isEmpty());
+            if (failing) {
+                return false;
+            }
+            delivered.addAll(reminders);
+            return true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        storeFile = new File(folder.getRoot(), "reminders.bin");
+        clock = new FakeClock();
+        platform = new RecordingPlatform();
+    }
+
+    /**
+     * Creates a scheduler as after a process start, running everything on the calling thread
+     */
+    private ReminderScheduler newScheduler() {
+        return new ReminderScheduler(new ReminderStore(storeFile), clock, platform, Runnable::run, TICK, WINDOW);
+    }
+
+    /**
+     * Moves the clock from alarm to alarm, as the system would, up to a time
+     */
+    private void fireAlarmsUntil(ReminderScheduler scheduler, long untilMillis) {
+        for (int alarms = 0; platform.alarmAt >= 0 && platform.alarmAt <= untilMillis; alarms++) {
+            assertTrue("alarm keeps firing at " + platform.alarmAt, alarms < 1000);
+            clock.now = platform.alarmAt;
+            // A fired alarm is spent
+            platform.alarmAt = -1;
+            scheduler.onAlarm(() -> {
+            });
+        }
+        clock.now = Math.max(clock.now, untilMillis);
+    }
+
+    @Test
+    public void setsAlarmAtEndOfWindow() {
+        ReminderScheduler scheduler = newScheduler();
+        scheduler.schedule(1, "Title", "Message", START + 90_000);
+
+        assertEquals(START + 2 * WINDOW, platform.alarmAt);
+        assertEquals(1, platform.alarms.size());
+    }
+
+    @Test
+    public void cancelRemovesReminderAndAlarm() {
+        ReminderScheduler scheduler = newScheduler();
+        scheduler.schedule(1, "Title", "Message", START + 90_000);
+        scheduler.cancel(1);
+
+        assertEquals(1, platform.cancelCount);
+        assertEquals(-1, platform.alarmAt);
+        assertTrue(new ReminderStore(storeFile).load().isEmpty());
+        fireAlarmsUntil(scheduler, START + DAY);
+        assertTrue(platform.delivered.isEmpty());
+    }
+
+    @Test
+    public void deliversOverdueReminderRightAway() {
+        ReminderScheduler scheduler = newScheduler();
+        scheduler.schedule(1, "Title", "Message", START - 1);
+
+        assertEquals(1, platform.delivered.size());
+        assertTrue(platform.alarms.isEmpty());
+        assertTrue(new ReminderStore(storeFile).load().isEmpty());
+    }
+
+    @Test
+    public void deliversAcrossEveryWheelLevel() {
+        ReminderScheduler scheduler = newScheduler();
+        // Land in each level of the wheel: seconds, minutes, hours and days away
+        long[] deadlines = {START + 10_000, START + 300_000, START + 5 * 3600_000L, START + 3 * DAY};
+        for (int i = deadlines.length - 1; i >= 0; i--) {
+            scheduler.schedule(i, "Reminder " + i, "Message", deadlines[i]);
+        }
+
+        for (int i = 0; i < deadlines.length; i++) {
+            fireAlarmsUntil(scheduler, deadlines[i] + WINDOW);
+            assertEquals(i + 1, platform.delivered.size());
+            assertEquals(i, platform.delivered.get(i).id);
+        }
+        assertEquals(-1, platform.alarmAt);
+    }
+
+    @Test
+    public void deliversDeadlineBeyondWheelRange() {
+        ReminderScheduler scheduler = newScheduler();
+        // The wheel covers 2^24 one-second ticks, about 194 days
+        long deadline = START + 400 * DAY;
+        scheduler.schedule(1, "Title", "Message", deadline);
+        assertEquals(deadline, platform.alarmAt);
+
+        // An alarm firing early, as after a reboot, delivers nothing and keeps the alarm
+        clock.now = START + 200 * DAY;
+        platform.alarmAt = -1;
+        scheduler.onAlarm(() -> {
+        });
+        assertTrue(platform.delivered.isEmpty());
+        assertEquals(deadline, platform.alarmAt);
+
+        fireAlarmsUntil(scheduler, deadline);
+        assertEquals(1, platform.delivered.size());
+    }
+
+    @Test
+    public void rebuildsFromStoreAfterProcessDeath() {
+        ReminderScheduler scheduler = newScheduler();
+        scheduler.schedule(1, "Missed", "Message", START + 60_000);
+        scheduler.schedule(2, "Later", "Message", START + 3600_000);
+        scheduler.schedule(3, "Cancelled", "Message", START + 120_000);
+        scheduler.cancel(3);
+
+        // The process dies before the first alarm and restarts after it
+        clock.now = START + 5 * 60_000;
+        platform = new RecordingPlatform();
+        ReminderScheduler restarted = newScheduler();
+
+        assertEquals(1, platform.delivered.size());
+        assertEquals("Missed", platform.delivered.get(0).title);
+        assertEquals(START + 3600_000, platform.alarmAt);
+        fireAlarmsUntil(restarted, START + DAY);
+        assertEquals(2, platform.delivered.size());
+        assertEquals("Later", platform.delivered.get(1).title);
+        assertTrue(new ReminderStore(storeFile).load().isEmpty());
+    }
+
+    @Test
+    public void setsOneAlarmPerWindow() {
+        ReminderScheduler scheduler = newScheduler();
+        // Scheduled latest first, so each one moves the earliest deadline
+        for (int i = 99; i >= 0; i--) {
+            scheduler.schedule(i, "Reminder " + i, "Message", START + 1_000 + i * 500);
+        }
+        assertEquals(1, platform.alarms.size());
+
+        fireAlarmsUntil(scheduler, START + WINDOW);
+        assertEquals(100, platform.delivered.size());
+        // The only wake-up was the one alarm
+        assertEquals(1, platform.alarms.size());
+    }
+
+    @Test
+    public void keepsRemindersUntilPosted() {
+        ReminderScheduler scheduler = newScheduler();
+        scheduler.schedule(1, "Title", "Message", START + 10_000);
+        platform.failing = true;
+        fireAlarmsUntil(scheduler, START + WINDOW);
+
+        // Still stored, so a process dying now shows it on the next start
+        assertTrue(platform.delivered.isEmpty());
+        assertEquals(1, new ReminderStore(storeFile).load().size());
+        // Tried again on a later wake-up
+        platform.failing = false;
+        fireAlarmsUntil(scheduler, START + 3 * WINDOW);
+        assertEquals(1, platform.delivered.size());
+        assertTrue(new ReminderStore(storeFile).load().isEmpty());
+    }
+
+    @Test
+    public void deliversAllDueInOneWindowTogether() {
+        ReminderScheduler scheduler = newScheduler();
+        for (int i = 0; i < 5_000; i++) {
+            scheduler.schedule(i, "Reminder " + i, "Message", START + 1_000 + i * 10);
+        }
+        fireAlarmsUntil(scheduler, START + WINDOW);
+
+        assertEquals(5_000, platform.delivered.size());
+        assertEquals(1, platform.alarms.size());
+        assertTrue(new ReminderStore(storeFile).load().isEmpty());
+    }
+}
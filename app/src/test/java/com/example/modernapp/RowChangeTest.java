@@ -0,0 +1,264 @@
+package com.example.modernapp;
+
+import android.content.Context;
+import android.text.StaticLayout;
+import android.view.View;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Change flags of {@link RowChange}, and the row fields the adapters update when a
+ * refreshed list is submitted, counted on the real rows and icon loads
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RowChangeTest {
+    private static final int ROWS = 40;
+    private static final int ROUNDS = 6;
+    // Tall enough for every row to be laid out
+    private static final int LIST_HEIGHT = 100_000;
+    private static final int[] ICONS = {android.R.drawable.ic_menu_info_details, android.R.drawable.ic_menu_manage};
+
+    private Context context;
+    private RecyclerView list;
+    private CountingIconLoader iconLoader;
+
+    /**
+     * Counts the icon loads of each row instead of loading them
+     */
+    private static final class CountingIconLoader extends IconLoader {
+        final Map<FeatureRowView, Integer> loads = new HashMap<>();
+
+        CountingIconLoader(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void load(FeatureRowView row, int resId) {
+            Integer count = loads.get(row);
+            loads.put(row, count == null ? 1 : count + 1);
+        }
+
+        @Override
+        public void clear(FeatureRowView row) {
+        }
+
+        int loadsOf(FeatureRowView row) {
+            Integer count = loads.get(row);
+            return count == null ? 0 : count;
+        }
+    }
+
+    /**
+     * Submits the rows' current fields to the adapter under test, as a new list
+     */
+    private interface Submitter {
+        void submit(int[] icons, String[] titles, String[] descriptions);
+    }
+
+    /**
+     * Notes when the adapter has applied a submit
+     */
+    private static final class UpdateObserver extends RecyclerView.AdapterDataObserver {
+        boolean updated;
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            updated = true;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            updated = true;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            updated = true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        list = new RecyclerView(context);
+        list.setLayoutManager(new LinearLayoutManager(context));
+        // Without change animations, a changed row is rebound in place with its payloads
+        list.setItemAnimator(null);
+        iconLoader = new CountingIconLoader(context);
+    }
+
+    private void layOutList() {
+        list.measure(View.MeasureSpec.makeMeasureSpec(TestData.ROW_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(LIST_HEIGHT, View.MeasureSpec.EXACTLY));
+        list.layout(0, 0, TestData.ROW_WIDTH, LIST_HEIGHT);
+    }
+
+    /**
+     * Submits and runs the main looper until the diff computed in the background has been applied
+     */
+    private static void submitAndAwait(RecyclerView.Adapter<?> adapter, Submitter submitter,
+                                       int[] icons, String[] titles, String[] descriptions)
+            throws InterruptedException {
+        UpdateObserver observer = new UpdateObserver();
+        adapter.registerAdapterDataObserver(observer);
+        submitter.submit(icons, titles, descriptions);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!observer.updated) {
+            assertTrue("diff wasn't applied", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+            ShadowLooper.idleMainLooper();
+        }
+        adapter.unregisterAdapterDataObserver(observer);
+    }
+
+    @Test
+    public void diffFlagsOnlyChangedFields() {
+        assertEquals(0, RowChange.diff(1, "Title", "Description", 1, "Title", "Description"));
+        assertEquals(RowChange.ICON, RowChange.diff(1, "Title", "Description", 2, "Title", "Description"));
+        assertEquals(RowChange.TITLE, RowChange.diff(1, "Title", "Description", 1, "New", "Description"));
+        assertEquals(RowChange.DESCRIPTION, RowChange.diff(1, "Title", "Description", 1, "Title", "New"));
+        assertEquals(RowChange.ALL, RowChange.diff(1, "Title", "Description", 2, "New", "New"));
+        // Equal text in a different string object is no change
+        assertEquals(0, RowChange.diff(1, "Title", "Description", 1, new String("Title"), "Description"));
+    }
+
+    @Test
+    public void mergeCombinesPayloads() {
+        assertEquals(RowChange.TEXT, RowChange.merge(Arrays.<Object>asList(RowChange.TITLE, RowChange.DESCRIPTION)));
+        assertEquals(RowChange.ICON, RowChange.merge(Collections.<Object>singletonList(RowChange.ICON)));
+        // A payload from elsewhere can't be interpreted, so everything is rebound
+        assertEquals(RowChange.ALL, RowChange.merge(Arrays.<Object>asList(RowChange.TITLE, "other")));
+    }
+
+    @Test
+    public void featureAdapterMutatesOnlyChangedFields() throws Exception {
+        FeatureAdapter[] adapter = new FeatureAdapter[1];
+        Submitter submitter = (icons, titles, descriptions) -> {
+            List<Feature> features = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                features.add(new Feature(i, icons[i], titles[i], descriptions[i], MainActivity.class));
+            }
+            if (adapter[0] == null) {
+                adapter[0] = new FeatureAdapter(context, features, null, iconLoader);
+            } else {
+                adapter[0].submitList(features);
+            }
+        };
+        replayRefreshes(submitter, () -> adapter[0]);
+    }
+
+    @Test
+    public void itemAdapterMutatesOnlyChangedFields() throws Exception {
+        ItemAdapter[] adapter = new ItemAdapter[1];
+        Submitter submitter = (icons, titles, descriptions) -> {
+            ItemStore items = new ItemStore(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                items.add(i + 1, icons[i], titles[i], descriptions[i]);
+            }
+            if (adapter[0] == null) {
+                adapter[0] = new ItemAdapter(context, items, new RowTextCache(), iconLoader);
+            } else {
+                adapter[0].submitItems(items);
+            }
+        };
+        replayRefreshes(submitter, () -> adapter[0]);
+    }
+
+    /**
+     * Shows rows through an adapter, then refreshes random fields of them round after
+     * round, and checks that each row's icon was loaded and its text laid out again
+     * only for the fields that changed. Some rounds refresh twice before the list is
+     * laid out, so the row is rebound once with both payloads.
+     */
+    private void replayRefreshes(Submitter submitter, Callable<RecyclerView.Adapter<?>> adapter)
+            throws Exception {
+        Random random = new Random(11);
+        int[] icons = new int[ROWS];
+        String[] titles = new String[ROWS];
+        String[] descriptions = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            icons[i] = ICONS[0];
+            titles[i] = "Title " + i;
+            descriptions[i] = "Description " + i;
+        }
+        submitter.submit(icons, titles, descriptions);
+        list.setAdapter(adapter.call());
+        layOutList();
+        assertEquals(ROWS, list.getChildCount());
+
+        int[] mutated = new int[3];
+        FeatureRowView[] rows = new FeatureRowView[ROWS];
+        int[] iconLoads = new int[ROWS];
+        StaticLayout[] titleLayouts = new StaticLayout[ROWS];
+        StaticLayout[] descriptionLayouts = new StaticLayout[ROWS];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < ROWS; i++) {
+                rows[i] = (FeatureRowView) list.findViewHolderForAdapterPosition(i).itemView;
+                iconLoads[i] = iconLoader.loadsOf(rows[i]);
+                titleLayouts[i] = rows[i].getTitleLayout();
+                descriptionLayouts[i] = rows[i].getDescriptionLayout();
+            }
+
+            int[] changes = new int[ROWS];
+            for (int submit = round % 2; submit >= 0; submit--) {
+                for (int i = 0; i < ROWS; i++) {
+                    int refreshed = random.nextInt(RowChange.ALL + 1);
+                    if ((refreshed & RowChange.ICON) != 0) {
+                        icons[i] = icons[i] == ICONS[0] ? ICONS[1] : ICONS[0];
+                    }
+                    if ((refreshed & RowChange.TITLE) != 0) {
+                        titles[i] += "'";
+                    }
+                    if ((refreshed & RowChange.DESCRIPTION) != 0) {
+                        descriptions[i] += "'";
+                    }
+                    changes[i] |= refreshed;
+                }
+                submitAndAwait(adapter.call(), submitter, icons, titles, descriptions);
+            }
+            layOutList();
+
+            for (int i = 0; i < ROWS; i++) {
+                FeatureRowView row = (FeatureRowView) list.findViewHolderForAdapterPosition(i).itemView;
+                // Refreshed in place, not replaced by another row
+                assertTrue("row " + i + " was replaced", row == rows[i]);
+                boolean iconChanged = (changes[i] & RowChange.ICON) != 0;
+                boolean titleChanged = (changes[i] & RowChange.TITLE) != 0;
+                boolean descriptionChanged = (changes[i] & RowChange.DESCRIPTION) != 0;
+                assertEquals("icon loads of row " + i, iconChanged ? 1 : 0, iconLoader.loadsOf(row) - iconLoads[i]);
+                assertEquals("title layout of row " + i, titleChanged, row.getTitleLayout() != titleLayouts[i]);
+                assertEquals("description layout of row " + i, descriptionChanged,
+                        row.getDescriptionLayout() != descriptionLayouts[i]);
+                assertEquals(titles[i], row.getTitleLayout().getText().toString());
+                assertEquals(descriptions[i], row.getDescriptionLayout().getText().toString());
+                mutated[0] += iconChanged ? 1 : 0;
+                mutated[1] += titleChanged ? 1 : 0;
+                mutated[2] += descriptionChanged ? 1 : 0;
+            }
+        }
+        // Every field was refreshed somewhere, so each check was exercised
+        for (int count : mutated) {
+            assertTrue(count > 0);
+        }
+    }
+}
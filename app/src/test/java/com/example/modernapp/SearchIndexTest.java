@@ -0,0 +1,158 @@
+package com.example.modernapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+    private static final int DOCUMENTS = 100_000;
+    private static final String[] WORDS = {
+            "red", "green", "blue", "amber", "black", "cat", "dog", "cow", "crow", "deer",
+            "small", "large", "quick", "quiet", "bright", "dark", "round", "sharp", "soft", "warm"
+    };
+
+    @Test
+    public void matchesEveryTokenAndLastAsPrefix() {
+        SearchIndex index = new SearchIndex();
+        index.put(0, "Dark mode", "Switch the app to a dark theme");
+        index.put(1, "Notifications", "Choose which notifications to show");
+        index.put(2, "Dark notifications", "Dim the notification light");
+
+        assertArrayEquals(new int[]{0, 2}, index.search("dark"));
+        assertArrayEquals(new int[]{0, 2}, index.search("DA"));
+        assertArrayEquals(new int[]{1, 2}, index.search("notif"));
+        assertArrayEquals(new int[]{2}, index.search("dark notif"));
+        assertArrayEquals(new int[]{2}, index.search("notifications, dar"));
+        // Only the last token matches as a prefix
+        assertArrayEquals(new int[0], index.search("da notifications"));
+        assertArrayEquals(new int[0], index.search("darker"));
+    }
+
+    @Test
+    public void emptyQueryListsEveryDocument() {
+        SearchIndex index = new SearchIndex();
+        index.put(3, "Three");
+        index.put(1, "One");
+
+        assertArrayEquals(new int[]{1, 3}, index.search(""));
+        assertArrayEquals(new int[]{1, 3}, index.search("  -- "));
+    }
+
+    @Test
+    public void putReplacesAndRemoveForgets() {
+        SearchIndex index = new SearchIndex();
+        index.put(0, "Old title");
+        index.put(1, "Other title");
+
+        index.put(0, "New title");
+        assertArrayEquals(new int[0], index.search("old"));
+        assertArrayEquals(new int[]{0}, index.search("new"));
+        assertArrayEquals(new int[]{0, 1}, index.search("title"));
+
+        index.remove(1);
+        assertArrayEquals(new int[0], index.search("other"));
+        assertArrayEquals(new int[]{0}, index.search("tit"));
+        assertArrayEquals(new int[]{0}, index.search(""));
+
+        // Removing twice, or something never indexed, does nothing
+        index.remove(1);
+        index.remove(100);
+        index.clear();
+        assertArrayEquals(new int[0], index.search("title"));
+    }
+
+    @Test
+    public void incrementalUpdatesMatchBruteForce() {
+        Random random = new Random(7);
+        String[] documents = new String[500];
+        SearchIndex index = new SearchIndex();
+        for (int step = 0; step < 5_000; step++) {
+            int id = random.nextInt(documents.length);
+            if (random.nextInt(4) == 0) {
+                documents[id] = null;
+                index.remove(id);
+            } else {
+                documents[id] = randomText(random, 3);
+                index.put(id, documents[id]);
+            }
+            if (step % 50 == 0) {
+                String query = WORDS[random.nextInt(WORDS.length)] + " "
+                        + WORDS[random.nextInt(WORDS.length)].substring(0, 1 + random.nextInt(2));
+                assertArrayEquals(query, bruteForce(documents, query), index.search(query));
+            }
+        }
+    }
+
+    @Test
+    public void queryLatencyOverHundredThousandDocuments() throws Exception {
+        Random random = new Random(42);
+        SearchIndex index = new SearchIndex();
+        for (int id = 0; id < DOCUMENTS; id++) {
+            index.put(id, "Item " + id, randomText(random, 4));
+        }
+
+        // From selective to broad: the numeric prefix spans thousands of terms, "item" every document
+        String[] queries = {"item 4242", "quick crow", "amber d", "dark", "c", "1", "item", "item r"};
+        Benchmark benchmark = new Benchmark("SearchIndex");
+        double slowest = 0;
+        for (String query : queries) {
+            int matches = index.search(query).length;
+            assertTrue(query, matches > 0);
+            Benchmark.Result result = benchmark.measure("search/" + query, 20, i -> index.search(query));
+            benchmark.record("search/" + query, "matches", matches);
+            slowest = Math.max(slowest, result.nanosPerOp);
+        }
+        assertEquals(DOCUMENTS, index.search("item").length);
+
+        // Timings are only reported; they depend too much on the machine to assert on
+        benchmark.record("search", "slowestNanosPerOp", slowest);
+        benchmark.measure("put", 1_000, i -> index.put(i, "Item " + i, "Quiet amber deer"));
+        benchmark.write();
+        // Each replaced document is found by its new text
+        int[] replaced = index.search("quiet amber deer");
+        for (int id = 0; id < 1_000; id++) {
+            assertTrue("document " + id, Arrays.binarySearch(replaced, id) >= 0);
+        }
+    }
+
+    private static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Evaluates a query of whole words plus a final prefix by scanning every document
+     */
+    private static int[] bruteForce(String[] documents, String query) {
+        String[] tokens = query.split(" ");
+        int[] ids = new int[documents.length];
+        int count = 0;
+        for (int id = 0; id < documents.length; id++) {
+            if (documents[id] != null && matches(documents[id].split(" "), tokens)) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static boolean matches(String[] words, String[] tokens) {
+        for (int t = 0; t < tokens.length; t++) {
+            boolean found = false;
+            for (String word : words) {
+                found |= t == tokens.length - 1 ? word.startsWith(tokens[t]) : word.equals(tokens[t]);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
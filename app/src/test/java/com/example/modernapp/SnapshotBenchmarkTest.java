@@ -0,0 +1,92 @@
+package com.example.modernapp;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cost of reading every preference from a {@link DataManager.Snapshot}, against
+ * the locked map lookups SharedPreferences does for each getter. Written to
+ * build/benchmarks/DataManagerSnapshot.json.
+ */
+public class SnapshotBenchmarkTest {
+    private static final int READS = 100_000;
+
+    // Consumes the values read, so the reads can't be optimized away
+    private int sink;
+
+    /**
+     * Reads preferences the way SharedPreferencesImpl does: a lock and a hash lookup per getter
+     */
+    private static final class LockedPreferences {
+        private final Object lock = new Object();
+        private final Map<String, Object> values = new HashMap<>();
+
+        String getString(String key, String defaultValue) {
+            synchronized (lock) {
+                String value = (String) values.get(key);
+                return value != null ? value : defaultValue;
+            }
+        }
+
+        boolean getBoolean(String key, boolean defaultValue) {
+            synchronized (lock) {
+                Boolean value = (Boolean) values.get(key);
+                return value != null ? value : defaultValue;
+            }
+        }
+    }
+
+    @Test
+    public void editsChangeOnlyTheirKey() {
+        DataManager.Snapshot snapshot = new DataManager.Snapshot("Ada", "ada@example.com", true, false);
+        DataManager.Snapshot renamed = snapshot.withUserName("Grace");
+
+        assertEquals("Grace", renamed.getUserName());
+        assertEquals("ada@example.com", renamed.getUserEmail());
+        assertTrue(renamed.differs(DataManager.Key.USER_NAME, snapshot));
+        assertFalse(renamed.differs(DataManager.Key.USER_EMAIL, snapshot));
+        assertFalse(renamed.differs(DataManager.Key.NOTIFICATIONS_ENABLED, snapshot));
+        assertTrue(snapshot.withDarkModeEnabled(true).differs(DataManager.Key.DARK_MODE_ENABLED, snapshot));
+        // The original is untouched
+        assertEquals("Ada", snapshot.getUserName());
+    }
+
+    @Test
+    public void snapshotGettersBeatLockedLookups() throws Exception {
+        DataManager.Snapshot loaded = new DataManager.Snapshot("Ada", "ada@example.com", true, false);
+        LockedPreferences preferences = new LockedPreferences();
+        preferences.values.put("user_name", "Ada");
+        preferences.values.put("user_email", "ada@example.com");
+        preferences.values.put("notifications_enabled", true);
+        preferences.values.put("dark_mode_enabled", false);
+
+        Benchmark benchmark = new Benchmark("DataManagerSnapshot");
+        // Read through a volatile reference, as DataManager's getters do
+        AtomicReference<DataManager.Snapshot> current = new AtomicReference<>(loaded);
+        Benchmark.Result fromSnapshot = benchmark.measure("snapshot", READS, i -> {
+            DataManager.Snapshot snapshot = current.get();
+            sink += snapshot.getUserName().length() + snapshot.getUserEmail().length()
+                    + (snapshot.areNotificationsEnabled() ? 1 : 0) + (snapshot.isDarkModeEnabled() ? 1 : 0);
+        });
+        Benchmark.Result fromPreferences = benchmark.measure("lockedLookups", READS, i -> {
+            sink += preferences.getString("user_name", "").length()
+                    + preferences.getString("user_email", "").length()
+                    + (preferences.getBoolean("notifications_enabled", true) ? 1 : 0)
+                    + (preferences.getBoolean("dark_mode_enabled", false) ? 1 : 0);
+        });
+        benchmark.write();
+
+        assertTrue(sink != 0);
+        assertTrue("snapshot " + fromSnapshot.nanosPerOp + " ns, lookups " + fromPreferences.nanosPerOp + " ns",
+                fromSnapshot.nanosPerOp < fromPreferences.nanosPerOp);
+        // Reading never allocates; -1 where the JVM doesn't count allocations
+        assertTrue("allocated " + fromSnapshot.bytesPerOp + " bytes per read", fromSnapshot.bytesPerOp < 1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.modernapp;
+
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sample items and helpers shared by the tests
+ */
+final class TestData {
+    // Width of a phone screen, in pixels
+    static final int ROW_WIDTH = 1080;
+
+    private TestData() {
+    }
+
+    /**
+     * Creates features with IDs 0 to count - 1 and distinct titles
+     *
+     * @param count the number of features
+     * @return the features
+     */
+    static List<Feature> features(int count) {
+        List<Feature> features = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            features.add(new Feature(i, android.R.drawable.ic_menu_info_details,
+                    "Feature " + i, "Description of feature " + i, MainActivity.class));
+        }
+        return features;
+    }
+
+    /**
+     * Creates items with IDs 1 to count and distinct titles
+     *
+     * @param count the number of items
+     * @return the items
+     */
+    static ItemStore items(int count) {
+        ItemStore store = new ItemStore(count);
+        for (int i = 0; i < count; i++) {
+            store.add(i + 1, android.R.drawable.ic_menu_info_details, "Item " + i, "Description of item " + i);
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * Measures and lays out a view at the row width, as a list would
+     *
+     * @param view the view
+     */
+    static void layOut(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(ROW_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.modernapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+    private static final long TICK = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    public void expiresOnDeadlineTick() {
+        TimerWheel wheel = new TimerWheel(TICK, START);
+        wheel.schedule(1, START + 5_500);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(START + 5_999, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(START + 6_000, expired::add);
+        assertEquals(1, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelRemovesTimer() {
+        TimerWheel wheel = new TimerWheel(TICK, START);
+        wheel.schedule(1, START + 5_000);
+        wheel.schedule(2, START + 7_000);
+
+        assertTrue(wheel.cancel(1));
+        assertFalse(wheel.cancel(1));
+        assertEquals(START + 7_000, wheel.nextDeadline());
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(START + 10_000, expired::add);
+        assertEquals(1, expired.size());
+        assertEquals(2L, (long) expired.get(0));
+    }
+
+    @Test
+    public void cascadesThroughEveryLevel() {
+        TimerWheel wheel = new TimerWheel(TICK, START);
+        // Within level 0, 1, 2 and 3 of the wheel
+        long[] deadlines = {START + 30_000, START + 3_000_000, START + 200_000_000, START + 10_000_000_000L};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        for (int i = 0; i < deadlines.length; i++) {
+            assertEquals(deadlines[i], wheel.nextDeadline());
+            List<Long> expired = new ArrayList<>();
+            wheel.advance(deadlines[i] - TICK, expired::add);
+            assertTrue("timer " + i + " expired early", expired.isEmpty());
+            wheel.advance(deadlines[i], expired::add);
+            assertEquals((long) i, (long) expired.get(0));
+        }
+        assertEquals(Long.MAX_VALUE, wheel.nextDeadline());
+    }
+
+    @Test
+    public void keepsDeadlinesBeyondRange() {
+        TimerWheel wheel = new TimerWheel(TICK, START);
+        // The wheel covers 2^24 ticks, about 194 days at one second each
+        long deadline = START + 400L * 24 * 3600 * 1000;
+        wheel.schedule(1, deadline);
+        wheel.schedule(2, START + 60_000);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(START + 200L * 24 * 3600 * 1000, expired::add);
+        assertEquals(1, expired.size());
+        assertEquals(deadline, wheel.nextDeadline());
+        wheel.advance(deadline - TICK, expired::add);
+        assertEquals(1, expired.size());
+        wheel.advance(deadline, expired::add);
+        assertEquals(2, expired.size());
+        assertEquals(1L, (long) expired.get(1));
+    }
+
+    @Test
+    public void matchesReferenceModel() {
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            long now = START;
+            TimerWheel wheel = new TimerWheel(TICK, now);
+            Map<Long, Long> deadlines = new HashMap<>();
+            long nextId = 0;
+            for (int step = 0; step < 2000; step++) {
+                int op = random.nextInt(10);
+                if (op < 5) {
+                    long deadline = now + randomDelay(random);
+                    wheel.schedule(nextId, deadline);
+                    deadlines.put(nextId++, deadline);
+                } else if (op < 6 && nextId > 0) {
+                    long id = random.nextInt((int) nextId);
+                    assertEquals(deadlines.remove(id) != null, wheel.cancel(id));
+                } else {
+                    long earliest = Long.MAX_VALUE;
+                    for (long deadline : deadlines.values()) {
+                        earliest = Math.min(earliest, deadline);
+                    }
+                    assertEquals(earliest, wheel.nextDeadline());
+
+                    // At least a tick, so timers scheduled overdue are due too
+                    now += Math.max(TICK, randomDelay(random));
+                    long time = now;
+                    wheel.advance(now, id -> {
+                        Long deadline = deadlines.remove(id);
+                        assertTrue("expired early", deadline != null && deadline <= time);
+                    });
+                    for (long deadline : deadlines.values()) {
+                        // Deadlines round up to whole ticks, so one later in the current tick is still pending
+                        assertTrue("missed a deadline", (deadline + TICK - 1) / TICK > now / TICK);
+                    }
+                }
+                assertEquals(deadlines.size(), wheel.size());
+            }
+        }
+    }
+
+    /**
+     * Gets a delay spread over every level of the wheel and beyond, sometimes negative
+     */
+    private static long randomDelay(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return -random.nextInt(5_000);
+            case 1:
+                return random.nextInt(70_000);
+            case 2:
+                return (long) (random.nextDouble() * 5_000_000L);
+            case 3:
+                return (long) (random.nextDouble() * 400_000_000L);
+            default:
+                return (long) (random.nextDouble() * 40_000_000_000L);
+        }
+    }
+}